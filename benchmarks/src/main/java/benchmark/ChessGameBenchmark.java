@@ -0,0 +1,82 @@
+package benchmark;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times the rule checks the server runs for every move it receives
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class ChessGameBenchmark {
+    private ChessGame game;
+    private ChessGame moveGame;
+    private ChessBoard board;
+    private final ChessPosition knight = ChessPosition.of(3, 6);
+    private final ChessMove move = Positions.parse("c1g5");
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        game = Positions.middlegame();
+        board = new ChessBoard();
+    }
+
+    @Setup(Level.Invocation)
+    public void freshGame() {
+        moveGame = Positions.middlegame();
+    }
+
+    @Benchmark
+    public Collection<ChessMove> validMoves() {
+        return game.validMoves(knight);
+    }
+
+    @Benchmark
+    public Collection<ChessMove> legalMoves() {
+        return game.legalMoves();
+    }
+
+    @Benchmark
+    public ChessGame makeMove() throws InvalidMoveException {
+        moveGame.makeMove(move);
+        return moveGame;
+    }
+
+    @Benchmark
+    public boolean isInCheck() {
+        return game.isInCheck(ChessGame.TeamColor.WHITE);
+    }
+
+    @Benchmark
+    public boolean isInCheckmate() {
+        game.setTeamTurn(ChessGame.TeamColor.WHITE);
+        return game.isInCheckmate(ChessGame.TeamColor.WHITE);
+    }
+
+    @Benchmark
+    public ChessBoard resetBoard() {
+        board.resetBoard();
+        return board;
+    }
+}
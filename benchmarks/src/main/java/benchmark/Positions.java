@@ -0,0 +1,42 @@
+package benchmark;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+
+/**
+ * Games the benchmarks start from
+ */
+final class Positions {
+    // Italian Game after 1.e4 e5 2.Nf3 Nc6 3.Bc4 Bc5 4.d3 Nf6 5.Nc3 d6
+    private static final String[] MIDDLEGAME = {
+            "e2e4", "e7e5", "g1f3", "b8c6", "f1c4", "f8c5", "d2d3", "g8f6", "b1c3", "d7d6"
+    };
+
+    private Positions() {}
+
+    static ChessGame start() {
+        return new ChessGame();
+    }
+
+    static ChessGame middlegame() {
+        ChessGame game = new ChessGame();
+        try {
+            for(String move:MIDDLEGAME) {
+                game.makeMove(parse(move));
+            }
+        } catch(InvalidMoveException e) {
+            throw new IllegalStateException(e);
+        }
+        return game;
+    }
+
+    static ChessMove parse(String move) {
+        return new ChessMove(square(move, 0), square(move, 2), null);
+    }
+
+    private static ChessPosition square(String move, int offset) {
+        return ChessPosition.of(move.charAt(offset + 1) - '0', move.charAt(offset) - 'a' + 1);
+    }
+}
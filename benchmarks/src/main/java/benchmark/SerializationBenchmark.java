@@ -0,0 +1,90 @@
+package benchmark;
+
+import chess.ChessGame;
+import chess.ChessJson;
+import chess.GameCodec;
+import com.google.gson.Gson;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times turning a game into the form the server stores and sends, and back,
+ * with Gson's default field-by-field format, with the compact format and
+ * with the binary {@link GameCodec} format
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class SerializationBenchmark {
+    private final Gson gson = new Gson();
+    private ChessGame game;
+    private String json;
+    private String compactJson;
+    private byte[] binary;
+
+    @Setup
+    public void setUp() {
+        game = Positions.middlegame();
+        json = gson.toJson(game);
+        compactJson = ChessJson.GSON.toJson(game);
+        binary = GameCodec.encode(game);
+    }
+
+    @Benchmark
+    public String toJson() {
+        return gson.toJson(game);
+    }
+
+    @Benchmark
+    public ChessGame fromJson() {
+        return gson.fromJson(json, ChessGame.class);
+    }
+
+    @Benchmark
+    public ChessGame roundTrip() {
+        return gson.fromJson(gson.toJson(game), ChessGame.class);
+    }
+
+    @Benchmark
+    public String compactToJson() {
+        return ChessJson.GSON.toJson(game);
+    }
+
+    @Benchmark
+    public ChessGame compactFromJson() {
+        return ChessJson.GSON.fromJson(compactJson, ChessGame.class);
+    }
+
+    @Benchmark
+    public ChessGame compactRoundTrip() {
+        return ChessJson.GSON.fromJson(ChessJson.GSON.toJson(game), ChessGame.class);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return GameCodec.encode(game);
+    }
+
+    @Benchmark
+    public ChessGame decode() {
+        return GameCodec.decode(binary);
+    }
+
+    @Benchmark
+    public ChessGame binaryRoundTrip() {
+        return GameCodec.decode(GameCodec.encode(game));
+    }
+}
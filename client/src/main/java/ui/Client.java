@@ -1,7 +1,6 @@
 package ui;
 
 import chess.*;
-import com.google.gson.Gson;
 import records.*;
 import websocket.commands.UserGameCommand;
 import websocket.messages.ServerMessage;
@@ -68,8 +67,9 @@ public class Client implements ServerMessageHandler {
         if(state == UserState.LOGGED_IN) {
             helpCommands.append("create <NAME>\n");
             helpCommands.append("\tstart a new game\n");
-            helpCommands.append("list\n");
-            helpCommands.append("\tlist games that have already been created\n");
+            helpCommands.append("list <OPEN|MORE>\n");
+            helpCommands.append("\tlist games that have already been created, 'list open' for games with a free seat\n");
+            helpCommands.append("\tand 'list more' for the next page\n");
             helpCommands.append("join <GAME ID> <WHITE|BLACK|EMPTY>\n");
             helpCommands.append("\tjoin a game using its ID and which color you want to play" +
                     ", or leave blank to spectate\n");
@@ -129,7 +129,7 @@ public class Client implements ServerMessageHandler {
             if(state == UserState.LOGGED_IN) {
                 return switch (cmd) {
                     case "create" -> create(params);
-                    case "list" -> list();
+                    case "list" -> list(params);
                     case "join", "observe" -> join(params);
                     case "quit" -> "quit";
                     case "logout" -> logout();
@@ -209,14 +209,29 @@ public class Client implements ServerMessageHandler {
         }
         throw new RuntimeException("Error: please provide a name for your new game.");
     }
-    public String list() throws RuntimeException {
-        ArrayList<AbbreviatedGameData> gameList = serverFacade.list();
-        StringBuilder returnListBuilder = new StringBuilder("Current chess games:\n");
+    public String list(String... params) throws RuntimeException {
+        String option = params.length >= 1 ? params[0] : "";
+        ArrayList<AbbreviatedGameData> gameList;
+        StringBuilder returnListBuilder;
+        if(Objects.equals(option, "more")) {
+            if(!serverFacade.hasMoreGames()) {
+                return "No more games to list.\n";
+            }
+            gameList = serverFacade.listMore();
+            returnListBuilder = new StringBuilder("More chess games:\n");
+        } else {
+            gameList = serverFacade.list(Objects.equals(option, "open"));
+            gameListSize = 0;
+            returnListBuilder = new StringBuilder("Current chess games:\n");
+        }
         for(AbbreviatedGameData game:gameList) {
             returnListBuilder.append(String.format("game#: %d, whiteUsername: %s, blackUsername: %s, gameName: %s\n"
                     , game.gameID(), game.whiteUsername(), game.blackUsername(), game.gameName()));
         }
-        gameListSize = gameList.size();
+        gameListSize += gameList.size();
+        if(serverFacade.hasMoreGames()) {
+            returnListBuilder.append("Type 'list more' to see more games.\n");
+        }
         return returnListBuilder.toString();
     }
     public String join(String... params) throws RuntimeException {
@@ -294,11 +309,16 @@ public class Client implements ServerMessageHandler {
             System.out.println(message.getErrorMessage());
         }
         if(message.getServerMessageType() == ServerMessage.ServerMessageType.LOAD_GAME) {
-            this.game = new Gson().fromJson(message.getMessage(), ChessGame.class);
-            System.out.print(redraw());
+            loadGame(ChessJson.GSON.fromJson(message.getMessage(), ChessGame.class));
+            return;
         }
         printPrompt();
     }
+    public void loadGame(ChessGame game) {
+        this.game = game;
+        System.out.print(redraw());
+        printPrompt();
+    }
     public String makeMove(String... params) throws RuntimeException {
         if(params.length >= 2) {
             String start = params[0];
@@ -351,7 +371,7 @@ public class Client implements ServerMessageHandler {
             if(row < 1 || row > 8) {
                 throw new RuntimeException(String.format("Error: %s is not within 1-8\n", rank));
             }
-            return new ChessPosition(row, col);
+            return ChessPosition.of(row, col);
         }
         throw new RuntimeException(String.format("Error: %s is not a valid position.\n", coord));
     }
@@ -1,12 +1,12 @@
 package ui;
 
 import chess.ChessGame;
+import chess.ChessJson;
 import records.*;
-import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
 
 import java.io.*;
 import java.net.*;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
@@ -14,8 +14,15 @@ import java.util.Map;
 import websocket.commands.*;
 
 public class ServerFacade {
+    private static final int PAGE_SIZE = 20;
     private String authToken = null;
     private HashMap<Integer, AbbreviatedGameData> safeGameIndex = new HashMap<>();
+    // The query for the page after the last one listed, or null once there are no more.
+    private GameListQuery nextPage = null;
+    // The last first page fetched and its ETag, reused when the server says the lobby has not changed.
+    private GameListQuery firstPageQuery = null;
+    private GamePage firstPage = null;
+    private String firstPageETag = null;
     private final String serverURL;
 
     public ServerFacade(String url) {
@@ -24,7 +31,7 @@ public class ServerFacade {
     public void register(UserData newUser) throws RuntimeException {
         try {
             var path = "/user";
-            var body = new Gson().toJson(newUser);
+            var body = ChessJson.GSON.toJson(newUser);
             String method = "POST";
             this.authToken = sendRequest(path, method, body, authToken, AuthData.class).authToken();
         } catch(ResponseException e) {
@@ -34,7 +41,7 @@ public class ServerFacade {
     public void login(UserData newLogin) throws RuntimeException {
         try {
             var path = "/session";
-            var body = new Gson().toJson(newLogin);
+            var body = ChessJson.GSON.toJson(newLogin);
             String method = "POST";
             this.authToken = sendRequest(path, method, body, authToken, AuthData.class).authToken();
         } catch(ResponseException e) {
@@ -44,44 +51,115 @@ public class ServerFacade {
     public void create(String gameName) throws RuntimeException {
         try {
             String path = "/game";
-            var body = new Gson().toJson(Map.of("gameName", gameName));
+            var body = ChessJson.GSON.toJson(Map.of("gameName", gameName));
             String method = "POST";
             sendRequest(path, method, body, authToken, Map.class);
         } catch(ResponseException e) {
             throw new RuntimeException("Error: Please log in to create a game.");
         }
     }
-    public ArrayList list() throws RuntimeException {
+    public ArrayList<AbbreviatedGameData> list() throws RuntimeException {
+        return list(false);
+    }
+    /**
+     * Lists the first page of games, numbering them from 1 for join.
+     */
+    public ArrayList<AbbreviatedGameData> list(boolean openSeatsOnly) throws RuntimeException {
+        safeGameIndex.clear();
+        GameListQuery query = new GameListQuery(0, PAGE_SIZE, openSeatsOnly, null, null);
         try {
-            String path = "/game";
+            String etag = query.equals(firstPageQuery) ? firstPageETag : null;
+            HttpURLConnection http = openGamePage(query, etag);
+            if(http.getResponseCode() != 304) {
+                throwIfNotSuccessful(http);
+                firstPage = readResponseBody(http, GamePage.class);
+                firstPageQuery = query;
+                firstPageETag = http.getHeaderField("ETag");
+            }
+            return numberPage(firstPage, query);
+        } catch(ResponseException | IOException | URISyntaxException e) {
+            throw new RuntimeException("Error: please login to see a list of games.");
+        }
+    }
+    /**
+     * Lists the page after the last one listed, numbering on from it.
+     *
+     * @return the games on that page, or an empty list if there are no more
+     */
+    public ArrayList<AbbreviatedGameData> listMore() throws RuntimeException {
+        if(nextPage == null) {
+            return new ArrayList<>();
+        }
+        return listPage(nextPage);
+    }
+    public boolean hasMoreGames() {
+        return nextPage != null;
+    }
+    private ArrayList<AbbreviatedGameData> listPage(GameListQuery query) throws RuntimeException {
+        try {
+            String path = "/game?" + queryString(query);
             String body = null;
             String method = "GET";
-            var listMap = sendRequest(path, method, body, authToken, Map.class);
-            var arrayJson = new Gson().toJson(listMap.get("games"));
-            ArrayList<AbbreviatedGameData> rawGameArray = new Gson().fromJson(arrayJson,
-                    new TypeToken<ArrayList<AbbreviatedGameData>>() {
-                    }.getType());
-            safeGameIndex.clear();
-            ArrayList<AbbreviatedGameData> safeGameArray = new ArrayList<>();
-            for (int i = 0; i < rawGameArray.size(); ++i) {
-                String white = rawGameArray.get(i).whiteUsername();
-                String black = rawGameArray.get(i).blackUsername();
-                String name = rawGameArray.get(i).gameName();
-                AbbreviatedGameData safeGame = new AbbreviatedGameData((i + 1), white, black, name);
-                safeGameArray.add(safeGame);
-                safeGameIndex.put((i + 1), rawGameArray.get(i));
-            }
-            return safeGameArray;
+            return numberPage(sendRequest(path, method, body, authToken, GamePage.class), query);
         } catch(ResponseException e) {
             throw new RuntimeException("Error: please login to see a list of games.");
         }
     }
+    /**
+     * Starts a GET for a page of games, sending the ETag of a copy already
+     * held so the server can answer 304 if the lobby has not changed since.
+     */
+    private HttpURLConnection openGamePage(GameListQuery query, String etag) throws IOException, URISyntaxException {
+        URI uri = new URI(serverURL + "/game?" + queryString(query));
+        HttpURLConnection http = (HttpURLConnection) uri.toURL().openConnection();
+        if(authToken != null) {
+            http.setRequestProperty("Authorization", authToken);
+        }
+        if(etag != null) {
+            http.setRequestProperty("If-None-Match", etag);
+        }
+        http.setRequestMethod("GET");
+        http.connect();
+        return http;
+    }
+    /**
+     * Numbers a page's games on from those already listed, for join.
+     */
+    private ArrayList<AbbreviatedGameData> numberPage(GamePage page, GameListQuery query) {
+        ArrayList<AbbreviatedGameData> safeGameArray = new ArrayList<>();
+        for(AbbreviatedGameData rawGame:page.games()) {
+            int safeNumber = safeGameIndex.size() + 1;
+            String white = rawGame.whiteUsername();
+            String black = rawGame.blackUsername();
+            String name = rawGame.gameName();
+            AbbreviatedGameData safeGame = new AbbreviatedGameData(safeNumber, white, black, name);
+            safeGameArray.add(safeGame);
+            safeGameIndex.put(safeNumber, rawGame);
+        }
+        nextPage = page.nextAfter() == null ? null : new GameListQuery(page.nextAfter(), query.limit(),
+                query.openSeatsOnly(), query.namePrefix(), query.player());
+        return safeGameArray;
+    }
+    private static String queryString(GameListQuery query) {
+        StringBuilder params = new StringBuilder();
+        params.append("after=").append(query.after()).append("&limit=").append(query.limit());
+        if(query.openSeatsOnly()) {
+            params.append("&open=true");
+        }
+        if(query.namePrefix() != null) {
+            params.append("&name=").append(URLEncoder.encode(query.namePrefix(), StandardCharsets.UTF_8));
+        }
+        if(query.player() != null) {
+            params.append("&player=").append(URLEncoder.encode(query.player(), StandardCharsets.UTF_8));
+        }
+        return params.toString();
+    }
     public int join(int safeGameNumber, ChessGame.TeamColor color) throws RuntimeException {
         int gameID = safeGameIndex.get(safeGameNumber).gameID();
         try {
             if(color != null) {
                 String path = "/game";
-                var body = new Gson().toJson(new JoinRequests(color, gameID));
+                var body = ChessJson.GSON.toJson(new JoinRequests(color, gameID));
                 String method = "PUT";
                 sendRequest(path, method, body, authToken, null);
             }
@@ -107,6 +185,9 @@ public class ServerFacade {
             String method = "DELETE";
             sendRequest(path, method, body, authToken, null);
             authToken = null;
+            firstPageQuery = null;
+            firstPage = null;
+            firstPageETag = null;
         } catch(ResponseException e) {
             throw new RuntimeException("Error: you already were not logged in.");
         }
@@ -145,7 +226,7 @@ public class ServerFacade {
             try(InputStream resBody = http.getInputStream()) {
                 InputStreamReader reader = new InputStreamReader(resBody);
                 if(responseClass != null) {
-                    response = new Gson().fromJson(reader, responseClass);
+                    response = ChessJson.GSON.fromJson(reader, responseClass);
                 }
             }
         }
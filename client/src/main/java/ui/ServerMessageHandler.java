@@ -1,7 +1,9 @@
 package ui;
 
+import chess.ChessGame;
 import websocket.messages.*;
 
 public interface ServerMessageHandler {
     void notify(ServerMessage message);
+    void loadGame(ChessGame game);
 }
@@ -3,15 +3,17 @@ package ui;
 import javax.websocket.*;
 
 import chess.ChessGame;
+import chess.ChessJson;
 import chess.ChessMove;
+import chess.GameCodec;
 import records.ResponseException;
-import com.google.gson.Gson;
 import websocket.messages.*;
 import websocket.commands.*;
 
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
 
 public class WebSocketFacade extends Endpoint {
     private Session session;
@@ -32,10 +34,17 @@ public class WebSocketFacade extends Endpoint {
             this.session.addMessageHandler(new MessageHandler.Whole<String>() {
                 @Override
                 public void onMessage(String message) {
-                    ServerMessage serverMessage = new Gson().fromJson(message, ServerMessage.class);
+                    ServerMessage serverMessage = ChessJson.GSON.fromJson(message, ServerMessage.class);
                     serverMessageHandler.notify(serverMessage);
                 }
             });
+            // Games arrive as binary frames since CONNECT asks for them that way.
+            this.session.addMessageHandler(new MessageHandler.Whole<ByteBuffer>() {
+                @Override
+                public void onMessage(ByteBuffer message) {
+                    serverMessageHandler.loadGame(GameCodec.decode(message));
+                }
+            });
         } catch(DeploymentException | IOException | URISyntaxException ex) {
             throw new ResponseException(500, ex.getMessage());
         }
@@ -46,7 +55,8 @@ public class WebSocketFacade extends Endpoint {
     public void joinGame(UserGameCommand.CommandType commtype) throws ResponseException {
         try {
             var command = new UserGameCommand(commtype, authToken, gameID);
-            this.session.getBasicRemote().sendText(new Gson().toJson(command));
+            command.setBinaryGames(true);
+            this.session.getBasicRemote().sendText(ChessJson.GSON.toJson(command));
         } catch(IOException e) {
             throw new ResponseException(500, e.getMessage());
         }
@@ -54,7 +64,7 @@ public class WebSocketFacade extends Endpoint {
     public void makeMove(ChessMove move) throws ResponseException {
         try {
             var command = new UserGameCommand(UserGameCommand.CommandType.MAKE_MOVE, authToken, gameID, move);
-            this.session.getBasicRemote().sendText(new Gson().toJson(command));
+            this.session.getBasicRemote().sendText(ChessJson.GSON.toJson(command));
         } catch(IOException e) {
             throw new ResponseException(500, e.getMessage());
         }
@@ -62,7 +72,7 @@ public class WebSocketFacade extends Endpoint {
     public void resign() throws ResponseException {
         try {
             var command = new UserGameCommand(UserGameCommand.CommandType.RESIGN, authToken, gameID);
-            this.session.getBasicRemote().sendText(new Gson().toJson(command));
+            this.session.getBasicRemote().sendText(ChessJson.GSON.toJson(command));
         } catch(IOException e) {
             throw new ResponseException(500, e.getMessage());
         }
@@ -70,7 +80,7 @@ public class WebSocketFacade extends Endpoint {
     public void leave() throws ResponseException {
         try {
             var command = new UserGameCommand(UserGameCommand.CommandType.LEAVE, authToken, gameID);
-            this.session.getBasicRemote().sendText(new Gson().toJson(command));
+            this.session.getBasicRemote().sendText(ChessJson.GSON.toJson(command));
         } catch(IOException e) {
             throw new ResponseException(500, e.getMessage());
         }
@@ -7,4 +7,12 @@ public interface AuthDAO {
     void deleteAuth(String authToken);
     AuthData createAuth(String username);
     String getUsername(String authToken);
+    /**
+     * Looks up a token in a single query, for callers that need to both check
+     * it and know whose it is.
+     *
+     * @throws DataAccessException "Error: unauthorized" if the token is not
+     * valid, or another message if the lookup itself failed
+     */
+    AuthData getAuth(String authToken) throws DataAccessException;
 }
@@ -0,0 +1,181 @@
+package dataaccess;
+
+import records.AuthData;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.LongSupplier;
+
+/**
+ * Keeps recent token lookups in memory in front of another AuthDAO.
+ * <p>
+ * Valid tokens are remembered for a while, and unknown ones for a shorter
+ * while so repeated bad requests do not each reach the database. The cache
+ * holds a bounded number of tokens, dropping the least recently used first.
+ * Deleting a token or clearing the data takes effect in the cache at once;
+ * the time limits only matter for changes made outside this server.
+ */
+public class CachingAuthDAO implements AuthDAO {
+    private static final int SHARED_MAX_SIZE = 10_000;
+    private static final long SHARED_TTL_MILLIS = 5 * 60 * 1000;
+    private static final long SHARED_NEGATIVE_TTL_MILLIS = 30 * 1000;
+    private static final String UNAUTHORIZED = "Error: unauthorized";
+    private static CachingAuthDAO shared;
+
+    /**
+     * Cache hit and miss counts since the cache was made
+     */
+    public record Stats(long hits, long negativeHits, long misses, long evictions, int size) {
+        /**
+         * @return the share of lookups answered from the cache, 0-1
+         */
+        public double hitRate() {
+            long total = hits + negativeHits + misses;
+            return total == 0 ? 0 : (double) (hits + negativeHits) / total;
+        }
+    }
+
+    // A null auth marks a token known to be invalid.
+    private record Entry(AuthData auth, long expiresAt) {}
+
+    private final AuthDAO delegate;
+    private final int maxSize;
+    private final long ttlMillis;
+    private final long negativeTtlMillis;
+    private final LongSupplier clock;
+    private final LinkedHashMap<String, Entry> entries;
+    // A marker for each token being looked up. Invalidating a token drops its marker, so a lookup
+    // that raced the invalidation does not cache what it read; lookups of other tokens are unaffected.
+    private final HashMap<String, Object> lookups = new HashMap<>();
+    private long hits;
+    private long negativeHits;
+    private long misses;
+    private long evictions;
+
+    public CachingAuthDAO(AuthDAO delegate, int maxSize, long ttlMillis, long negativeTtlMillis) {
+        this(delegate, maxSize, ttlMillis, negativeTtlMillis, System::currentTimeMillis);
+    }
+
+    CachingAuthDAO(AuthDAO delegate, int maxSize, long ttlMillis, long negativeTtlMillis, LongSupplier clock) {
+        this.delegate = delegate;
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+        this.negativeTtlMillis = negativeTtlMillis;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if(size() > CachingAuthDAO.this.maxSize) {
+                    ++evictions;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * @return the cache over the database that every service and handler
+     * shares, so a logout through one is seen by all of them
+     */
+    public static synchronized CachingAuthDAO shared() {
+        if(shared == null) {
+            shared = new CachingAuthDAO(new SQLAuthDAO(), SHARED_MAX_SIZE, SHARED_TTL_MILLIS,
+                    SHARED_NEGATIVE_TTL_MILLIS);
+        }
+        return shared;
+    }
+
+    @Override
+    public void clearData() {
+        delegate.clearData();
+        synchronized(this) {
+            entries.clear();
+            lookups.clear();
+        }
+    }
+
+    @Override
+    public boolean containsAuth(String userAuth) throws DataAccessException {
+        return getAuth(userAuth) != null;
+    }
+
+    @Override
+    public void deleteAuth(String authToken) {
+        delegate.deleteAuth(authToken);
+        invalidate(authToken);
+    }
+
+    @Override
+    public AuthData createAuth(String username) {
+        AuthData auth = delegate.createAuth(username);
+        // New tokens are usually used straight away, so start them off cached.
+        synchronized(this) {
+            entries.put(auth.authToken(), new Entry(auth, clock.getAsLong() + ttlMillis));
+        }
+        return auth;
+    }
+
+    @Override
+    public String getUsername(String authToken) {
+        try {
+            return getAuth(authToken).username();
+        } catch(DataAccessException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public AuthData getAuth(String authToken) throws DataAccessException {
+        Object lookup;
+        synchronized(this) {
+            Entry entry = entries.get(authToken);
+            if(entry != null && entry.expiresAt() > clock.getAsLong()) {
+                if(entry.auth() == null) {
+                    ++negativeHits;
+                    throw new DataAccessException(UNAUTHORIZED);
+                }
+                ++hits;
+                return entry.auth();
+            }
+            ++misses;
+            lookup = lookups.computeIfAbsent(authToken, token -> new Object());
+        }
+        AuthData auth;
+        try {
+            auth = delegate.getAuth(authToken);
+        } catch(DataAccessException e) {
+            // Only a confirmed miss is worth remembering; a failed lookup says nothing about the token.
+            boolean miss = Objects.equals(e.getMessage(), UNAUTHORIZED);
+            remember(authToken, null, miss ? negativeTtlMillis : 0, lookup);
+            throw e;
+        }
+        remember(authToken, auth, ttlMillis, lookup);
+        return auth;
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(hits, negativeHits, misses, evictions, entries.size());
+    }
+
+    private synchronized void invalidate(String authToken) {
+        entries.remove(authToken);
+        lookups.remove(authToken);
+    }
+
+    /**
+     * Ends a lookup, caching its answer for the given lifetime unless the
+     * token was invalidated while it ran. A lifetime of 0 caches nothing.
+     */
+    private synchronized void remember(String authToken, AuthData auth, long lifetime, Object lookup) {
+        if(lookups.get(authToken) != lookup) {
+            return;
+        }
+        lookups.remove(authToken);
+        if(authToken != null && lifetime > 0) {
+            entries.put(authToken, new Entry(auth, clock.getAsLong() + lifetime));
+        }
+    }
+}
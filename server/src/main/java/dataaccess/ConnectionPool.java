@@ -0,0 +1,559 @@
+package dataaccess;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded pool of open database connections.
+ * <p>
+ * Borrowed connections are handed out wrapped so that closing them returns
+ * the underlying connection to the pool instead of closing it, which keeps
+ * the usual try-with-resources pattern working unchanged. A background task
+ * closes connections that have sat idle too long, keeps at least the minimum
+ * number open, and counts connections that have been held past the leak
+ * threshold, logging a warning for each. With debug logging on, the warning
+ * also says where the connection was borrowed.
+ * <p>
+ * Each connection also keeps its most recently used prepared statements,
+ * keyed by SQL text. Preparing the same SQL again on a later borrow hands
+ * back the already prepared statement, and closing it returns it to the
+ * cache rather than closing it.
+ */
+public final class ConnectionPool {
+    private static final Logger LOG = LoggerFactory.getLogger(ConnectionPool.class);
+
+    /**
+     * Opens a new physical connection, already pointed at the right catalog
+     */
+    interface Opener {
+        Connection open() throws SQLException;
+    }
+
+    /**
+     * A snapshot of the pool's size and lifetime counters
+     */
+    public record Stats(int open, int idle, int inUse, long created, long borrowed, long waited, long timedOut,
+                        long discarded, long leaked, long statementHits, long statementMisses,
+                        long statementEvictions) {
+        /**
+         * @return the share of prepareStatement calls served from a cache, 0-1
+         */
+        public double statementHitRate() {
+            long total = statementHits + statementMisses;
+            return total == 0 ? 0 : (double) statementHits / total;
+        }
+    }
+
+    private final Opener opener;
+    private final int minSize;
+    private final int maxSize;
+    private final long timeoutMillis;
+    private final long validateAfterMillis;
+    private final long idleTimeoutMillis;
+    private final long leakThresholdMillis;
+    private final int statementCacheSize;
+
+    // Most recently returned first, so a quiet pool keeps reusing the same few connections.
+    private final ArrayDeque<Pooled> idle = new ArrayDeque<>();
+    private final Set<Pooled> inUse = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService maintenance;
+    private boolean shutDown;
+    private int open;
+    private int opening;
+    private long created;
+    private long borrowed;
+    private long waited;
+    private long timedOut;
+    private long discarded;
+    private long leaked;
+    // Statement caches are only touched by whoever holds their connection, so these skip the pool lock.
+    private final AtomicLong statementHits = new AtomicLong();
+    private final AtomicLong statementMisses = new AtomicLong();
+    private final AtomicLong statementEvictions = new AtomicLong();
+
+    ConnectionPool(Opener opener, int minSize, int maxSize, long timeoutMillis, long validateAfterMillis,
+                   long idleTimeoutMillis, long leakThresholdMillis, int statementCacheSize, long maintenanceMillis) {
+        if(minSize < 0 || maxSize < 1 || minSize > maxSize) {
+            throw new IllegalArgumentException(String.format("Invalid pool size %d-%d", minSize, maxSize));
+        }
+        this.opener = opener;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.timeoutMillis = timeoutMillis;
+        this.validateAfterMillis = validateAfterMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.leakThresholdMillis = leakThresholdMillis;
+        this.statementCacheSize = statementCacheSize;
+        if(maintenanceMillis > 0) {
+            maintenance = Executors.newSingleThreadScheduledExecutor(task -> {
+                Thread thread = new Thread(task, "db-pool-maintenance");
+                thread.setDaemon(true);
+                return thread;
+            });
+            maintenance.scheduleWithFixedDelay(this::maintain, maintenanceMillis, maintenanceMillis,
+                    TimeUnit.MILLISECONDS);
+        } else {
+            maintenance = null;
+        }
+    }
+
+    /**
+     * Hands out an idle connection, opening a new one if the pool is below its
+     * maximum, or waits up to the timeout for one to be returned.
+     *
+     * @throws SQLException if no connection frees up in time or one cannot be opened
+     */
+    Connection borrow() throws SQLException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        boolean counted = false;
+        while(true) {
+            Pooled candidate = null;
+            boolean openNew = false;
+            synchronized(this) {
+                while(!shutDown && idle.isEmpty() && open + opening >= maxSize) {
+                    long remaining = deadline - System.nanoTime();
+                    if(remaining <= 0) {
+                        ++timedOut;
+                        throw new SQLException(String.format("Timed out after %d ms waiting for a database connection",
+                                timeoutMillis));
+                    }
+                    if(!counted) {
+                        ++waited;
+                        counted = true;
+                    }
+                    try {
+                        TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                    } catch(InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new SQLException("Interrupted waiting for a database connection", e);
+                    }
+                }
+                if(shutDown) {
+                    throw new SQLException("The connection pool has been shut down");
+                }
+                if(!idle.isEmpty()) {
+                    candidate = idle.pollFirst();
+                } else {
+                    ++opening;
+                    openNew = true;
+                }
+            }
+            if(openNew) {
+                candidate = openPooled();
+            } else if(!isUsable(candidate)) {
+                discard(candidate);
+                continue;
+            }
+            return checkOut(candidate);
+        }
+    }
+
+    synchronized Stats stats() {
+        return new Stats(open, idle.size(), inUse.size(), created, borrowed, waited, timedOut, discarded, leaked,
+                statementHits.get(), statementMisses.get(), statementEvictions.get());
+    }
+
+    /**
+     * Closes every idle connection and stops maintenance. Connections still
+     * borrowed are closed as they come back.
+     */
+    void shutdown() {
+        if(maintenance != null) {
+            maintenance.shutdownNow();
+        }
+        ArrayList<Pooled> closing;
+        synchronized(this) {
+            closing = new ArrayList<>(idle);
+            idle.clear();
+            open -= closing.size();
+            shutDown = true;
+            notifyAll();
+        }
+        for(Pooled pooled:closing) {
+            closeQuietly(pooled.physical);
+        }
+    }
+
+    private Pooled openPooled() throws SQLException {
+        Connection physical;
+        try {
+            physical = opener.open();
+        } catch(SQLException | RuntimeException e) {
+            synchronized(this) {
+                --opening;
+                notifyAll();
+            }
+            throw e;
+        }
+        synchronized(this) {
+            --opening;
+            ++open;
+            ++created;
+        }
+        return new Pooled(physical);
+    }
+
+    private Connection checkOut(Pooled pooled) {
+        pooled.borrowedAt = System.currentTimeMillis();
+        // Filling in a stack trace on every borrow is costly, so the borrow site is only kept when debugging.
+        pooled.borrowSite = leakThresholdMillis > 0 && LOG.isDebugEnabled()
+                ? new Throwable("Connection borrowed here") : null;
+        pooled.reported = false;
+        inUse.add(pooled);
+        synchronized(this) {
+            ++borrowed;
+        }
+        Handle handle = new Handle(pooled);
+        handle.proxy = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] {Connection.class}, handle);
+        return handle.proxy;
+    }
+
+    /**
+     * Serves prepareStatement(sql) and prepareStatement(sql, autoGeneratedKeys)
+     * from the connection's cache, preparing and caching the statement on a
+     * miss. If the cached statement is already open under this borrow, a
+     * separate uncached one is prepared instead, and closed when the
+     * connection is returned if the borrower has not closed it by then.
+     */
+    private PreparedStatement prepareCached(Handle handle, Method method, Object[] args) throws Throwable {
+        Pooled pooled = handle.pooled;
+        String key = args.length == 1 ? (String) args[0] : args[0] + "\u0000" + args[1];
+        CachedStatement cached = pooled.statements.get(key);
+        if(cached != null && cached.inUse) {
+            statementMisses.incrementAndGet();
+            PreparedStatement uncached = (PreparedStatement) invokeOn(pooled.physical, method, args);
+            handle.uncachedStatements.add(uncached);
+            return uncached;
+        }
+        if(cached == null) {
+            statementMisses.incrementAndGet();
+            cached = new CachedStatement((PreparedStatement) invokeOn(pooled.physical, method, args));
+            pooled.statements.put(key, cached);
+            evictStatements(pooled);
+        } else {
+            statementHits.incrementAndGet();
+        }
+        cached.inUse = true;
+        StatementHandle statementHandle = new StatementHandle(handle, cached);
+        handle.openStatements.add(statementHandle);
+        return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                new Class<?>[] {PreparedStatement.class}, statementHandle);
+    }
+
+    private void evictStatements(Pooled pooled) {
+        Iterator<Map.Entry<String, CachedStatement>> eldest = pooled.statements.entrySet().iterator();
+        while(pooled.statements.size() > statementCacheSize && eldest.hasNext()) {
+            CachedStatement cached = eldest.next().getValue();
+            eldest.remove();
+            statementEvictions.incrementAndGet();
+            // One still open is closed when its borrower finishes with it.
+            cached.evicted = true;
+            if(!cached.inUse) {
+                closeQuietly(cached.statement);
+            }
+        }
+    }
+
+    private static Object invokeOn(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch(InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Takes a connection back from a closed handle, undoing anything the
+     * borrower left behind so the next borrower starts clean.
+     */
+    private void release(Pooled pooled) {
+        inUse.remove(pooled);
+        boolean reusable;
+        try {
+            reusable = !pooled.physical.isClosed();
+            if(reusable && !pooled.physical.getAutoCommit()) {
+                pooled.physical.rollback();
+                pooled.physical.setAutoCommit(true);
+            }
+        } catch(SQLException e) {
+            reusable = false;
+        }
+        if(!reusable) {
+            discard(pooled);
+            return;
+        }
+        pooled.lastUsed = System.currentTimeMillis();
+        synchronized(this) {
+            if(!shutDown) {
+                idle.addFirst(pooled);
+                notifyAll();
+                return;
+            }
+            --open;
+        }
+        closeQuietly(pooled.physical);
+    }
+
+    private boolean isUsable(Pooled pooled) {
+        if(System.currentTimeMillis() - pooled.lastUsed < validateAfterMillis) {
+            return true;
+        }
+        try {
+            return pooled.physical.isValid(2);
+        } catch(SQLException e) {
+            return false;
+        }
+    }
+
+    private void discard(Pooled pooled) {
+        synchronized(this) {
+            --open;
+            ++discarded;
+            notifyAll();
+        }
+        closeQuietly(pooled.physical);
+    }
+
+    /**
+     * Runs on the maintenance thread: reports leaks, retires connections idle
+     * past the timeout while above the minimum, and refills to the minimum.
+     */
+    void maintain() {
+        long now = System.currentTimeMillis();
+        if(leakThresholdMillis > 0) {
+            for(Pooled pooled:inUse) {
+                if(!pooled.reported && now - pooled.borrowedAt > leakThresholdMillis) {
+                    pooled.reported = true;
+                    synchronized(this) {
+                        ++leaked;
+                    }
+                    if(pooled.borrowSite != null) {
+                        LOG.warn("Database connection held for {} ms, possible leak", now - pooled.borrowedAt,
+                                pooled.borrowSite);
+                    } else {
+                        LOG.warn("Database connection held for {} ms, possible leak; enable debug logging for "
+                                + "where it was borrowed", now - pooled.borrowedAt);
+                    }
+                }
+            }
+        }
+        ArrayList<Pooled> retired = new ArrayList<>();
+        synchronized(this) {
+            // The oldest returned connections sit at the end of the deque.
+            while(open - retired.size() > minSize && !idle.isEmpty()
+                    && now - idle.peekLast().lastUsed > idleTimeoutMillis) {
+                retired.add(idle.pollLast());
+            }
+            open -= retired.size();
+        }
+        for(Pooled pooled:retired) {
+            closeQuietly(pooled.physical);
+        }
+        while(true) {
+            synchronized(this) {
+                if(shutDown || open + opening >= minSize) {
+                    return;
+                }
+                ++opening;
+            }
+            try {
+                Pooled pooled = openPooled();
+                pooled.lastUsed = System.currentTimeMillis();
+                synchronized(this) {
+                    idle.addLast(pooled);
+                    notifyAll();
+                }
+            } catch(SQLException | RuntimeException e) {
+                // The database may not exist yet; try again next time round.
+                return;
+            }
+        }
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        try {
+            closeable.close();
+        } catch(Exception e) {}
+    }
+
+    private static final class Pooled {
+        final Connection physical;
+        // In access order, so the first entry is the least recently used.
+        final LinkedHashMap<String, CachedStatement> statements = new LinkedHashMap<>(16, 0.75f, true);
+        volatile long lastUsed = System.currentTimeMillis();
+        volatile long borrowedAt;
+        volatile Throwable borrowSite;
+        volatile boolean reported;
+
+        Pooled(Connection physical) {
+            this.physical = physical;
+        }
+    }
+
+    private static final class CachedStatement {
+        final PreparedStatement statement;
+        boolean inUse;
+        boolean evicted;
+
+        CachedStatement(PreparedStatement statement) {
+            this.statement = statement;
+        }
+    }
+
+    /**
+     * The borrower's view of a pooled connection. It stops working once
+     * closed, so a stale reference cannot touch a connection someone else
+     * has since borrowed.
+     */
+    private final class Handle implements InvocationHandler {
+        private final Pooled pooled;
+        private final ArrayList<StatementHandle> openStatements = new ArrayList<>();
+        // Statements made straight on the physical connection, which would otherwise outlive the borrow.
+        private final ArrayList<Statement> uncachedStatements = new ArrayList<>();
+        private Connection proxy;
+        private boolean closed;
+
+        Handle(Pooled pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch(method.getName()) {
+                case "close" -> {
+                    if(!closed) {
+                        closed = true;
+                        for(StatementHandle statement:new ArrayList<>(openStatements)) {
+                            statement.close();
+                        }
+                        for(Statement statement:uncachedStatements) {
+                            closeQuietly(statement);
+                        }
+                        uncachedStatements.clear();
+                        release(pooled);
+                    }
+                    return null;
+                }
+                case "isClosed" -> {
+                    return closed || pooled.physical.isClosed();
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "Pooled " + pooled.physical;
+                }
+                default -> {}
+            }
+            if(closed) {
+                throw new SQLException("Connection has been returned to the pool");
+            }
+            if(statementCacheSize > 0 && method.getName().equals("prepareStatement")
+                    && (args.length == 1 || (args.length == 2 && args[1] instanceof Integer))) {
+                return prepareCached(this, method, args);
+            }
+            Object result = invokeOn(pooled.physical, method, args);
+            if(result instanceof Statement statement) {
+                uncachedStatements.add(statement);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * The borrower's view of a cached statement. Closing it closes the result
+     * sets it produced and clears its parameters, leaving the statement itself
+     * prepared for the next borrower.
+     */
+    private final class StatementHandle implements InvocationHandler {
+        private final Handle connection;
+        private final CachedStatement cached;
+        private final ArrayList<ResultSet> results = new ArrayList<>();
+        private boolean closed;
+
+        StatementHandle(Handle connection, CachedStatement cached) {
+            this.connection = connection;
+            this.cached = cached;
+        }
+
+        void close() {
+            if(closed) {
+                return;
+            }
+            closed = true;
+            connection.openStatements.remove(this);
+            for(ResultSet rs:results) {
+                closeQuietly(rs);
+            }
+            try {
+                cached.statement.clearParameters();
+            } catch(SQLException e) {
+                cached.evicted = true;
+                connection.pooled.statements.values().remove(cached);
+            }
+            cached.inUse = false;
+            if(cached.evicted) {
+                closeQuietly(cached.statement);
+            }
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch(method.getName()) {
+                case "close" -> {
+                    close();
+                    return null;
+                }
+                case "isClosed" -> {
+                    return closed || cached.statement.isClosed();
+                }
+                case "getConnection" -> {
+                    return connection.proxy;
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "Cached " + cached.statement;
+                }
+                default -> {}
+            }
+            if(closed) {
+                throw new SQLException("Statement has been closed");
+            }
+            Object result = invokeOn(cached.statement, method, args);
+            if(result instanceof ResultSet rs) {
+                results.add(rs);
+            }
+            return result;
+        }
+    }
+}
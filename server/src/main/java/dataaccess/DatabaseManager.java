@@ -3,6 +3,7 @@ package dataaccess;
 import records.ResponseException;
 
 import java.sql.*;
+import java.util.List;
 import java.util.Properties;
 
 public class DatabaseManager {
@@ -10,6 +11,8 @@ public class DatabaseManager {
     private static final String USER;
     private static final String PASSWORD;
     private static final String CONNECTION_URL;
+    private static final ConnectionPool POOL;
+    private static final long POOL_MAINTENANCE_MILLIS = 1000;
 
     /*
      * Load the database information for the db.properties file.
@@ -28,7 +31,19 @@ public class DatabaseManager {
 
                 var host = props.getProperty("db.host");
                 var port = Integer.parseInt(props.getProperty("db.port"));
-                CONNECTION_URL = String.format("jdbc:mysql://%s:%d", host, port);
+                // Server-side prepared statements let the pool's statement cache skip parsing on the server too.
+                CONNECTION_URL = String.format("jdbc:mysql://%s:%d?useServerPrepStmts=true", host, port);
+
+                // Pool settings are optional; the defaults suit a single server.
+                POOL = new ConnectionPool(DatabaseManager::openConnection,
+                        Integer.parseInt(props.getProperty("db.pool.minSize", "2")),
+                        Integer.parseInt(props.getProperty("db.pool.maxSize", "10")),
+                        Long.parseLong(props.getProperty("db.pool.timeoutMs", "5000")),
+                        Long.parseLong(props.getProperty("db.pool.validateAfterMs", "5000")),
+                        Long.parseLong(props.getProperty("db.pool.idleTimeoutMs", "600000")),
+                        Long.parseLong(props.getProperty("db.pool.leakDetectionMs", "60000")),
+                        Integer.parseInt(props.getProperty("db.pool.statementCacheSize", "32")),
+                        POOL_MAINTENANCE_MILLIS);
             }
         } catch (Exception ex) {
             throw new RuntimeException("unable to process db.properties. " + ex.getMessage());
@@ -41,8 +56,9 @@ public class DatabaseManager {
     static void createDatabase() throws DataAccessException {
         try {
             var statement = "CREATE DATABASE IF NOT EXISTS " + DATABASE_NAME;
-            var conn = DriverManager.getConnection(CONNECTION_URL, USER, PASSWORD);
-            try (var preparedStatement = conn.prepareStatement(statement)) {
+            // Pooled connections are tied to the database, which may not exist yet.
+            try (var conn = DriverManager.getConnection(CONNECTION_URL, USER, PASSWORD);
+                 var preparedStatement = conn.prepareStatement(statement)) {
                 preparedStatement.executeUpdate();
             }
         } catch (SQLException e) {
@@ -51,9 +67,10 @@ public class DatabaseManager {
     }
 
     /**
-     * Create a connection to the database and sets the catalog based upon the
-     * properties specified in db.properties. Connections to the database should
-     * be short-lived, and you must close the connection when you are done with it.
+     * Borrows a connection to the database from the pool, opening one with the
+     * catalog set from db.properties if none are idle. Connections to the database should
+     * be short-lived, and you must close the connection when you are done with it,
+     * which hands it back to the pool.
      * The easiest way to do that is with a try-with-resource block.
      * <br/>
      * <code>
@@ -64,13 +81,90 @@ public class DatabaseManager {
      */
     static Connection getConnection() throws DataAccessException {
         try {
-            var conn = DriverManager.getConnection(CONNECTION_URL, USER, PASSWORD);
-            conn.setCatalog(DATABASE_NAME);
-            return conn;
+            return POOL.borrow();
         } catch (SQLException e) {
             throw new DataAccessException(e.getMessage());
         }
     }
+
+    private static Connection openConnection() throws SQLException {
+        var conn = DriverManager.getConnection(CONNECTION_URL, USER, PASSWORD);
+        try {
+            conn.setCatalog(DATABASE_NAME);
+        } catch (SQLException e) {
+            conn.close();
+            throw e;
+        }
+        return conn;
+    }
+
+    /**
+     * @return the connection pool's current size and lifetime counters
+     */
+    public static ConnectionPool.Stats poolStats() {
+        return POOL.stats();
+    }
+    /**
+     * A change that brings an older table up to date. It is applied only if
+     * its check, a query against information_schema, finds no row.
+     */
+    public record Migration(String check, List<String> checkParameters, String statement) {
+        public static Migration addColumn(String table, String column, String definition) {
+            return new Migration("""
+                    SELECT 1 FROM information_schema.COLUMNS
+                    WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND COLUMN_NAME = ?;
+                    """, List.of(table, column),
+                    String.format("ALTER TABLE %s ADD COLUMN %s %s;", table, column, definition));
+        }
+        /**
+         * @param type the column's type as information_schema names it, such as "text"
+         */
+        public static Migration changeColumnType(String table, String column, String type) {
+            return new Migration("""
+                    SELECT 1 FROM information_schema.COLUMNS
+                    WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND COLUMN_NAME = ? AND DATA_TYPE = ?;
+                    """, List.of(table, column, type),
+                    String.format("ALTER TABLE %s MODIFY %s %s;", table, column, type.toUpperCase()));
+        }
+        public static Migration addIndex(String table, String index, String columns) {
+            return new Migration("""
+                    SELECT 1 FROM information_schema.STATISTICS
+                    WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND INDEX_NAME = ?;
+                    """, List.of(table, index),
+                    String.format("CREATE INDEX %s ON %s (%s);", index, table, columns));
+        }
+    }
+    /**
+     * Runs the create statements, then each migration that has not already
+     * been applied.
+     *
+     * @throws ResponseException 500 if a check or migration fails
+     */
+    public static void configureDatabase(String[] createStatements, Migration[] migrations) throws ResponseException,
+            DataAccessException {
+        configureDatabase(createStatements);
+        try(var conn = getConnection()) {
+            for(var migration:migrations) {
+                if(!isApplied(conn, migration)) {
+                    try(var preparedStatement = conn.prepareStatement(migration.statement())) {
+                        preparedStatement.executeUpdate();
+                    }
+                }
+            }
+        } catch(SQLException e) {
+            throw new ResponseException(500, String.format("Unable to configure database: %s", e.getMessage()));
+        }
+    }
+    private static boolean isApplied(Connection conn, Migration migration) throws SQLException {
+        try(var preparedStatement = conn.prepareStatement(migration.check())) {
+            for(int i = 0; i < migration.checkParameters().size(); ++i) {
+                preparedStatement.setString(i + 1, migration.checkParameters().get(i));
+            }
+            try(var rs = preparedStatement.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
     public static void configureDatabase(String[] createStatements) throws ResponseException, DataAccessException {
         createDatabase();
         try(var conn = getConnection()) {
@@ -3,6 +3,8 @@ package dataaccess;
 import chess.ChessGame;
 import records.GameData;
 import records.AbbreviatedGameData;
+import records.GameListQuery;
+import records.GamePage;
 
 import java.util.Collection;
 
@@ -12,4 +14,5 @@ public interface GameDAO {
     void joinGame(String username, ChessGame.TeamColor clientColor, int gameID) throws DataAccessException;
     int createGame(String gameName);
     Collection<AbbreviatedGameData> listGames();
+    GamePage listGames(GameListQuery query);
 }
@@ -0,0 +1,89 @@
+package dataaccess;
+
+import records.GameListQuery;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts changes to what the game list shows: games created, joined, left
+ * or ended. Listings tagged with the current version can be answered with
+ * "not modified" until the next change.
+ */
+public final class LobbyVersion {
+    // Keeps versions from an earlier run of the server from matching this run's.
+    private static final long EPOCH = System.currentTimeMillis();
+    private static final AtomicLong VERSION = new AtomicLong();
+
+    private LobbyVersion() {}
+
+    public static long current() {
+        return VERSION.get();
+    }
+
+    static void bump() {
+        VERSION.incrementAndGet();
+    }
+
+    /**
+     * @return an HTTP entity tag for one page of the lobby as of the given
+     * version, so a tag from one page or filter never matches another
+     */
+    public static String etag(long version, GameListQuery query) {
+        // An empty filter lists the same games as no filter, so both get the same tag.
+        int queryHash = Objects.hash(query.after(), query.limit(), query.openSeatsOnly(),
+                emptyToNull(query.namePrefix()), emptyToNull(query.player()));
+        return String.format("\"%x-%x-%08x\"", EPOCH, version, queryHash);
+    }
+
+    /**
+     * Checks an If-None-Match header against a tag. The header may be "*" or
+     * a comma-separated list of tags, and tags are compared weakly, ignoring
+     * any W/ prefix.
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if(ifNoneMatch == null) {
+            return false;
+        }
+        if(ifNoneMatch.trim().equals("*")) {
+            return true;
+        }
+        String opaque = opaqueTag(etag, 0);
+        int i = 0;
+        while(i < ifNoneMatch.length()) {
+            char c = ifNoneMatch.charAt(i);
+            if(c == ',' || Character.isWhitespace(c)) {
+                ++i;
+                continue;
+            }
+            String tag = opaqueTag(ifNoneMatch, i);
+            if(tag == null) {
+                return false;
+            }
+            if(tag.equals(opaque)) {
+                return true;
+            }
+            i = ifNoneMatch.indexOf('"', ifNoneMatch.indexOf('"', i) + 1) + 1;
+        }
+        return false;
+    }
+
+    /**
+     * @return the quoted part of the tag starting at the given index, quotes
+     * included and any W/ dropped, or null if it is malformed
+     */
+    private static String opaqueTag(String header, int start) {
+        if(header.startsWith("W/", start)) {
+            start += 2;
+        }
+        if(start >= header.length() || header.charAt(start) != '"') {
+            return null;
+        }
+        int end = header.indexOf('"', start + 1);
+        return end < 0 ? null : header.substring(start, end + 1);
+    }
+
+    private static String emptyToNull(String filter) {
+        return filter == null || filter.isEmpty() ? null : filter;
+    }
+}
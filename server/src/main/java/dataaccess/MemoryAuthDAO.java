@@ -2,52 +2,55 @@ package dataaccess;
 
 import records.AuthData;
 
-import java.util.HashSet;
-import java.util.Objects;
+import java.util.Collection;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class MemoryAuthDAO implements AuthDAO {
-    private static HashSet<AuthData> authDataHashSet = new HashSet<>();
+    private static final Map<String, AuthData> authDataByToken = new ConcurrentHashMap<>();
     @Override
     public void clearData() {
-        authDataHashSet.clear();;
+        authDataByToken.clear();
     }
 
     @Override
     public boolean containsAuth(String userAuth) throws DataAccessException {
-        for(AuthData auth:authDataHashSet) {
-            if(auth.authToken().equals(userAuth)) {
-                return true;
-            }
-        }
-        throw new DataAccessException("Error: unauthorized");
+        return getAuth(userAuth) != null;
     }
 
     @Override
     public void deleteAuth(String authToken) {
-        authDataHashSet.removeIf(auth -> Objects.equals(auth.authToken(), authToken));
+        if(authToken != null) {
+            authDataByToken.remove(authToken);
+        }
     }
 
     @Override
     public AuthData createAuth(String username) {
         String authToken = UUID.randomUUID().toString().replace("-", "");
         AuthData newAuth = new AuthData(username, authToken);
-        authDataHashSet.add(newAuth);
+        authDataByToken.put(authToken, newAuth);
         return newAuth;
     }
 
     @Override
     public String getUsername(String authToken) {
-        for(AuthData auth:authDataHashSet) {
-            if(Objects.equals(auth.authToken(), authToken)) {
-                return auth.username();
-            }
+        AuthData auth = authToken == null ? null : authDataByToken.get(authToken);
+        return auth == null ? null : auth.username();
+    }
+
+    @Override
+    public AuthData getAuth(String authToken) throws DataAccessException {
+        AuthData auth = authToken == null ? null : authDataByToken.get(authToken);
+        if(auth == null) {
+            throw new DataAccessException("Error: unauthorized");
         }
-        return null;
+        return auth;
     }
 
     //FOR TESTING
-    public static HashSet<AuthData> getAuthDataHashSet() {
-        return authDataHashSet;
+    public static Collection<AuthData> getAuthData() {
+        return authDataByToken.values();
     }
 }
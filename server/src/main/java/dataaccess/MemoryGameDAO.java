@@ -3,74 +3,117 @@ package dataaccess;
 import chess.ChessGame;
 import records.GameData;
 import records.AbbreviatedGameData;
+import records.GameListQuery;
+import records.GamePage;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class MemoryGameDAO implements GameDAO {
-    private static ArrayList<GameData> gameDataArrayList = new ArrayList<>();
+    // Each game sits in its own reference so a join can swap it with compareAndSet instead of locking.
+    // Kept in ID order so a page can start straight after the last game of the one before.
+    private static final ConcurrentNavigableMap<Integer, AtomicReference<GameData>> gamesByID =
+            new ConcurrentSkipListMap<>();
+    private static final AtomicInteger lastGameID = new AtomicInteger();
     @Override
     public void clearData() {
-        gameDataArrayList.clear();;
+        gamesByID.clear();
+        lastGameID.set(0);
+        LobbyVersion.bump();
     }
 
     @Override
     public GameData getGame(int gameID) {
-        for(GameData game:gameDataArrayList) {
-            if(game.gameID() == gameID) {
-                return game;
-            }
-        }
-        return null;
+        AtomicReference<GameData> game = gamesByID.get(gameID);
+        return game == null ? null : game.get();
     }
 
     @Override
     public void joinGame(String username, ChessGame.TeamColor clientColor, int gameID) throws DataAccessException {
-        for(GameData game:gameDataArrayList) {
-            if(game.gameID() == gameID) {
-                if(clientColor == ChessGame.TeamColor.WHITE) {
-                    if(game.whiteUsername() != null) {
-                        throw new DataAccessException("Error: already taken");
-                    }
-                    String black = game.blackUsername();
-                    String gName = game.gameName();
-                    GameData newGame = new GameData(gameID, username, black, gName, game.chessGame(), true);
-                    gameDataArrayList.remove(game);
-                    gameDataArrayList.add(newGame);
-                    return;
+        AtomicReference<GameData> gameRef = gamesByID.get(gameID);
+        if(gameRef == null || clientColor == null) {
+            throw new DataAccessException("Error: bad request");
+        }
+        while(true) {
+            GameData game = gameRef.get();
+            GameData newGame;
+            if(clientColor == ChessGame.TeamColor.WHITE) {
+                if(game.whiteUsername() != null) {
+                    throw new DataAccessException("Error: already taken");
                 }
-                if(clientColor == ChessGame.TeamColor.BLACK) {
-                    if(game.blackUsername() != null) {
-                        throw new DataAccessException("Error: already taken");
-                    }
-                    String white = game.whiteUsername();
-                    String gName = game.gameName();
-                    GameData newGame = new GameData(gameID, white, username, gName, game.chessGame(), true);
-                    gameDataArrayList.remove(game);
-                    gameDataArrayList.add(newGame);
-                    return;
+                newGame = new GameData(gameID, username, game.blackUsername(), game.gameName(), game.chessGame(), true);
+            } else {
+                if(game.blackUsername() != null) {
+                    throw new DataAccessException("Error: already taken");
                 }
+                newGame = new GameData(gameID, game.whiteUsername(), username, game.gameName(), game.chessGame(), true);
+            }
+            // Fails only if someone else changed the game first; look at their version and try again.
+            if(gameRef.compareAndSet(game, newGame)) {
+                LobbyVersion.bump();
+                return;
             }
         }
-        throw new DataAccessException("Error: bad request");
     }
 
     @Override
     public int createGame(String gameName) {
-        int gameID = gameDataArrayList.size() + 1;
+        int gameID = lastGameID.incrementAndGet();
         ChessGame newGame = new ChessGame();
         GameData newGameData = new GameData(gameID, null, null, gameName, newGame, true);
-        gameDataArrayList.add(newGameData);
+        gamesByID.put(gameID, new AtomicReference<>(newGameData));
+        LobbyVersion.bump();
         return gameID;
     }
 
     @Override
     public Collection<AbbreviatedGameData> listGames() {
         ArrayList<AbbreviatedGameData> games = new ArrayList<>();
-        for(GameData game:gameDataArrayList) {
+        for(AtomicReference<GameData> gameRef:gamesByID.values()) {
+            GameData game = gameRef.get();
             AbbreviatedGameData smallGame = new AbbreviatedGameData(game.gameID(), game.whiteUsername(), game.blackUsername(), game.gameName());
             games.add(smallGame);
         }
         return games;
     }
+
+    /**
+     * Walks games in ID order from just after the query's cursor, stopping
+     * once it has one more match than the page holds.
+     */
+    @Override
+    public GamePage listGames(GameListQuery query) {
+        ArrayList<AbbreviatedGameData> games = new ArrayList<>();
+        for(AtomicReference<GameData> gameRef:gamesByID.tailMap(query.after(), false).values()) {
+            GameData game = gameRef.get();
+            AbbreviatedGameData smallGame = new AbbreviatedGameData(game.gameID(), game.whiteUsername(), game.blackUsername(), game.gameName());
+            if(matches(smallGame, query)) {
+                games.add(smallGame);
+                if(games.size() > query.limit()) {
+                    break;
+                }
+            }
+        }
+        Integer nextAfter = null;
+        if(games.size() > query.limit()) {
+            games.removeLast();
+            nextAfter = games.getLast().gameID();
+        }
+        return new GamePage(games, nextAfter);
+    }
+    private static boolean matches(AbbreviatedGameData game, GameListQuery query) {
+        if(query.openSeatsOnly() && game.whiteUsername() != null && game.blackUsername() != null) {
+            return false;
+        }
+        if(query.namePrefix() != null && !game.gameName().startsWith(query.namePrefix())) {
+            return false;
+        }
+        return query.player() == null || Objects.equals(game.whiteUsername(), query.player())
+                || Objects.equals(game.blackUsername(), query.player());
+    }
 }
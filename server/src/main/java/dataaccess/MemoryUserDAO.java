@@ -2,45 +2,44 @@ package dataaccess;
 
 import records.UserData;
 
-import java.util.HashSet;
+import java.util.Collection;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class MemoryUserDAO implements UserDAO {
-    private static HashSet<UserData> userDataHashSet = new HashSet<>();
+    private static final Map<String, UserData> userDataByUsername = new ConcurrentHashMap<>();
     @Override
     public void clearData() {
-        userDataHashSet.clear();
+        userDataByUsername.clear();
     }
 
     @Override
     public boolean containsUsername(String username) throws DataAccessException {
-        for(UserData user:userDataHashSet) {
-            if(Objects.equals(user.username(), username)) {
-                throw new DataAccessException("");
-            }
+        if(username != null && userDataByUsername.containsKey(username)) {
+            throw new DataAccessException("");
         }
         return false;
     }
 
     @Override
     public boolean getLogin(UserData login) throws DataAccessException {
-        for(UserData user:userDataHashSet) {
-            if(Objects.equals(user.username(), login.username())) {
-                if(Objects.equals(user.password(), login.password())) {
-                    return true;
-                }
-                throw new DataAccessException("unauthorized");
-            }
+        UserData user = login.username() == null ? null : userDataByUsername.get(login.username());
+        if(user != null && Objects.equals(user.password(), login.password())) {
+            return true;
         }
         throw new DataAccessException("unauthorized");
     }
 
     @Override
-    public void createUser(UserData newUser) {
-        userDataHashSet.add(newUser);
+    public void createUser(UserData newUser) throws DataAccessException {
+        // The first registration of a name wins if two race.
+        if(userDataByUsername.putIfAbsent(newUser.username(), newUser) != null) {
+            throw new DataAccessException("Error: already taken");
+        }
     }
     //FOR TESTING
-    public HashSet<UserData> getUserDataHashSet() {
-        return userDataHashSet;
+    public Collection<UserData> getUserData() {
+        return userDataByUsername.values();
     }
 }
@@ -36,24 +36,31 @@ public class SQLAuthDAO implements AuthDAO {
 
     @Override
     public boolean containsAuth(String userAuth) throws DataAccessException {
+        return getAuth(userAuth) != null;
+    }
+
+    @Override
+    public AuthData getAuth(String authToken) throws DataAccessException {
         try(var conn = DatabaseManager.getConnection()) {
             var statement = """
-                    SELECT * FROM AuthData
+                    SELECT username, authToken FROM AuthData
                     WHERE authToken = ?;
                     """;
             try(var preparedStatement = conn.prepareStatement(statement)) {
-                preparedStatement.setString(1, userAuth);
+                preparedStatement.setString(1, authToken);
                 try(var rs = preparedStatement.executeQuery()) {
-                    return authResultSetProcessing(rs, userAuth);
-                } catch(SQLException e) {}
-            } catch(SQLException e) {}
-        } catch(SQLException e) {}
-        return false;
+                    return authResultSetProcessing(rs, authToken);
+                }
+            }
+        } catch(SQLException e) {
+            // Not "unauthorized": the token may be fine, the database just could not say.
+            throw new DataAccessException("Error: " + e.getMessage());
+        }
     }
-    private boolean authResultSetProcessing(ResultSet rs, String userAuth) throws DataAccessException, SQLException {
+    private AuthData authResultSetProcessing(ResultSet rs, String userAuth) throws DataAccessException, SQLException {
         while(rs.next()) {
             if(Objects.equals(rs.getString("authToken"), userAuth)) {
-                return true;
+                return new AuthData(rs.getString("username"), userAuth);
             }
         }
         throw new DataAccessException("Error: unauthorized");
@@ -94,22 +101,10 @@ public class SQLAuthDAO implements AuthDAO {
 
     @Override
     public String getUsername(String authToken) {
-        try(var conn = DatabaseManager.getConnection()) {
-            var statement = """
-                    SELECT username FROM AuthData
-                    WHERE authToken = ?;
-                    """;
-            try(var preparedStatement = conn.prepareStatement(statement)) {
-                preparedStatement.setString(1, authToken);
-                try(var rs = preparedStatement.executeQuery()) {
-                    String authorizedUser = null;
-                    while(rs.next()) {
-                        authorizedUser = rs.getString("username");
-                    }
-                    return authorizedUser;
-                } catch(SQLException e) {}
-            } catch(SQLException e) {}
-        } catch(SQLException | DataAccessException e) {}
-        return null;
+        try {
+            return getAuth(authToken).username();
+        } catch(DataAccessException e) {
+            return null;
+        }
     }
 }
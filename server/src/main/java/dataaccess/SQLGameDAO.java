@@ -2,11 +2,16 @@ package dataaccess;
 
 import chess.ChessBoard;
 import chess.ChessGame;
+import chess.ChessJson;
+import chess.ChessMove;
+import chess.GameCodec;
+import chess.InvalidMoveException;
 
-import com.google.gson.Gson;
 import records.GameData;
 import records.ResponseException;
 import records.AbbreviatedGameData;
+import records.GameListQuery;
+import records.GamePage;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -16,6 +21,9 @@ import java.util.Objects;
 //import static dataaccess.DatabaseConfigurer.configureDatabase;
 
 public class SQLGameDAO implements GameDAO{
+    // Plies between stored snapshots, which bounds how many moves getGame replays.
+    private static final int SNAPSHOT_INTERVAL = 32;
+
     private final String[] createStatements = {
             """
             CREATE TABLE IF NOT EXISTS GameData(
@@ -23,16 +31,42 @@ public class SQLGameDAO implements GameDAO{
                 whiteUsername VARCHAR(255),
                 blackUsername VARCHAR(255),
                 gameName VARCHAR(255) NOT NULL,
-                chessGame VARCHAR(2047) NOT NULL,
+                chessGame TEXT,
+                gameState BLOB,
+                snapshotPly INT NOT NULL DEFAULT 0,
                 isActive BOOLEAN,
-                PRIMARY KEY (id)
+                PRIMARY KEY (id),
+                INDEX activeGames (isActive, id),
+                INDEX gameNames (gameName),
+                INDEX whitePlayers (whiteUsername),
+                INDEX blackPlayers (blackUsername)
+                );
+            """,
+            """
+            CREATE TABLE IF NOT EXISTS GameMoves(
+                gameID INT NOT NULL,
+                ply INT NOT NULL,
+                move SMALLINT NOT NULL,
+                PRIMARY KEY (gameID, ply)
                 );
             """
     };
+    // Each is skipped once applied.
+    private final DatabaseManager.Migration[] migrations = {
+            // Tables made before games kept their position history used a column too short for it.
+            // Games are now written to gameState, so chessGame only holds rows from before that.
+            DatabaseManager.Migration.changeColumnType("GameData", "chessGame", "text"),
+            DatabaseManager.Migration.addColumn("GameData", "snapshotPly", "INT NOT NULL DEFAULT 0"),
+            DatabaseManager.Migration.addColumn("GameData", "gameState", "BLOB"),
+            DatabaseManager.Migration.addIndex("GameData", "activeGames", "isActive, id"),
+            DatabaseManager.Migration.addIndex("GameData", "gameNames", "gameName"),
+            DatabaseManager.Migration.addIndex("GameData", "whitePlayers", "whiteUsername"),
+            DatabaseManager.Migration.addIndex("GameData", "blackPlayers", "blackUsername")
+    };
 
     public SQLGameDAO() {
         try {
-            DatabaseManager.configureDatabase(createStatements);
+            DatabaseManager.configureDatabase(createStatements, migrations);
         } catch(ResponseException | DataAccessException e) {}
     }
     @Override
@@ -44,7 +78,14 @@ public class SQLGameDAO implements GameDAO{
             try(var preparedStatement = conn.prepareStatement(statement)) {
                 preparedStatement.executeUpdate();
             } catch(SQLException e) {}
+            var movesStatement = """
+                    TRUNCATE TABLE GameMoves;
+                    """;
+            try(var preparedStatement = conn.prepareStatement(movesStatement)) {
+                preparedStatement.executeUpdate();
+            } catch(SQLException e) {}
         } catch(SQLException | DataAccessException e) {}
+        LobbyVersion.bump();
     }
 
     @Override
@@ -62,9 +103,9 @@ public class SQLGameDAO implements GameDAO{
                         String whiteUsername = rs.getString("whiteUsername");
                         String blackUsername = rs.getString("blackUsername");
                         String gameName = rs.getString("gameName");
-                        String gameJson = rs.getString("chessGame");
                         boolean isActive = rs.getBoolean("isActive");
-                        ChessGame chessGame = new Gson().fromJson(gameJson, ChessGame.class);
+                        ChessGame chessGame = readGame(rs);
+                        replayMoves(conn, id, rs.getInt("snapshotPly"), chessGame);
                         GameData returnGame = new GameData(id, whiteUsername, blackUsername,
                                 gameName, chessGame, isActive);
                         return returnGame;
@@ -77,63 +118,94 @@ public class SQLGameDAO implements GameDAO{
         return null;
     }
 
+    /**
+     * Reads the binary gameState column, falling back to the JSON chessGame
+     * column for rows saved before games were stored with {@link GameCodec}.
+     */
+    private ChessGame readGame(ResultSet rs) throws SQLException {
+        byte[] gameState = rs.getBytes("gameState");
+        if(gameState != null) {
+            return GameCodec.decode(gameState);
+        }
+        return ChessJson.GSON.fromJson(rs.getString("chessGame"), ChessGame.class);
+    }
+
+    /**
+     * Plays the moves stored after the snapshot onto it, bringing it up to date.
+     */
+    private void replayMoves(Connection conn, int gameID, int snapshotPly, ChessGame game) throws SQLException {
+        var statement = """
+                SELECT move FROM GameMoves
+                WHERE gameID = ? AND ply > ?
+                ORDER BY ply;
+                """;
+        try(var preparedStatement = conn.prepareStatement(statement)) {
+            preparedStatement.setInt(1, gameID);
+            preparedStatement.setInt(2, snapshotPly);
+            try(var rs = preparedStatement.executeQuery()) {
+                while(rs.next()) {
+                    game.makeMove(GameCodec.decodeMove(rs.getShort("move")));
+                }
+            }
+        } catch(InvalidMoveException e) {
+            throw new SQLException("Stored move is illegal in game " + gameID, e);
+        }
+    }
+
+    /**
+     * Games are only ever started from the standard position, so the number
+     * of plies played follows from the move number and side to move.
+     */
+    private static int plyOf(ChessGame game) {
+        int blackToMove = game.getTeamTurn() == ChessGame.TeamColor.BLACK ? 1 : 0;
+        return (game.getFullmoveNumber() - 1) * 2 + blackToMove;
+    }
+
     @Override
     public void joinGame(String username, ChessGame.TeamColor clientColor, int gameID) throws DataAccessException {
+        if(clientColor == null) {
+            throw new DataAccessException("Error: bad request");
+        }
+        // Claiming the seat only if it is empty makes the check and the claim one atomic step.
+        var statement = clientColor == ChessGame.TeamColor.WHITE ? """
+                UPDATE GameData SET whiteUsername = ?
+                WHERE id = ? AND whiteUsername IS NULL;
+                """ : """
+                UPDATE GameData SET blackUsername = ?
+                WHERE id = ? AND blackUsername IS NULL;
+                """;
         try(var conn = DatabaseManager.getConnection()) {
-            var idQuery = """
-                    SELECT * FROM GameData
-                    WHERE id = ?;
-                    """;
-            try(var preparedIDQuery = conn.prepareStatement(idQuery)) {
-                boolean validID = false;
-                preparedIDQuery.setInt(1, gameID);
-                var rs = preparedIDQuery.executeQuery();
-                while(rs.next()) {
-                    int checkedID = rs.getInt("gameID");
-                    if(checkedID == gameID) {
-                        validID = true;
-                        break;
-                    }
-                }
-                if(!validID) {
-                    throw new DataAccessException("Error: bad request");
-                }
-            } catch(SQLException e) {}
-            if(clientColor == ChessGame.TeamColor.WHITE || clientColor == ChessGame.TeamColor.BLACK) {
-                String statement = null;
-                String columnLabel = null;
-                if(clientColor == ChessGame.TeamColor.WHITE) {
-                    columnLabel = "whiteUsername";
-                    statement = """
-                        SELECT whiteUsername FROM GameData
-                        WHERE id = ?;
-                        """;
-                }
-                if(clientColor == ChessGame.TeamColor.BLACK) {
-                    columnLabel = "blackUsername";
-                    statement = """
-                        SELECT blackUsername FROM GameData
-                        WHERE id = ?;
-                        """;
+            try(var preparedStatement = conn.prepareStatement(statement)) {
+                preparedStatement.setString(1, username);
+                preparedStatement.setInt(2, gameID);
+                if(preparedStatement.executeUpdate() == 1) {
+                    LobbyVersion.bump();
+                    return;
                 }
-                try(var preparedStatement = conn.prepareStatement(statement)) {
-                    preparedStatement.setInt(1, gameID);
-                    var rs = preparedStatement.executeQuery();
-                    String currentPlayer = null;
-                    while(rs.next()) {
-                        currentPlayer = rs.getString(columnLabel);
-                    }
-                    if(Objects.equals(currentPlayer, null)) {
-                        playerInserter(username, columnLabel, gameID, conn);
-                        return;
-                    }
-                    throw new DataAccessException("Error: already taken");
-                } catch(SQLException e) {}
             }
-            if(clientColor == null) {
-                throw new DataAccessException("Error: bad request");
+            if(gameExists(conn, gameID)) {
+                throw new DataAccessException("Error: already taken");
             }
-        } catch(SQLException e) {}
+            throw new DataAccessException("Error: bad request");
+        } catch(SQLException e) {
+            // A failure of the database, not of the request, so it is not reported as a bad request.
+            throw new DataAccessException("Error: " + e.getMessage());
+        }
+    }
+    /**
+     * Only asked after a join fails, to tell a taken seat from a missing game.
+     */
+    private boolean gameExists(Connection conn, int gameID) throws SQLException {
+        var statement = """
+                SELECT id FROM GameData
+                WHERE id = ?;
+                """;
+        try(var preparedStatement = conn.prepareStatement(statement)) {
+            preparedStatement.setInt(1, gameID);
+            try(var rs = preparedStatement.executeQuery()) {
+                return rs.next();
+            }
+        }
     }
     private void playerInserter(String username, String colorColumn, int gameID, Connection conn) throws SQLException {
         var statement = """
@@ -154,20 +226,20 @@ public class SQLGameDAO implements GameDAO{
     public int createGame(String gameName) {
         try(var conn = DatabaseManager.getConnection()) {
             ChessGame game = new ChessGame();
-            var gameJson = new Gson().toJson(game);
             var statement = """
                     INSERT INTO GameData
-                    (gameName, chessGame, isActive)
+                    (gameName, gameState, isActive)
                     VALUES (?, ?, ?);
                     """;
             try(var preparedStatement = conn.prepareStatement(statement, Statement.RETURN_GENERATED_KEYS)) {
                 preparedStatement.setString(1, gameName);
-                preparedStatement.setString(2, gameJson);
+                preparedStatement.setBytes(2, GameCodec.encode(game));
                 preparedStatement.setBoolean(3, true);
                 preparedStatement.executeUpdate();
                 var rs = preparedStatement.getGeneratedKeys();
                 rs.next();
                 int newGameID = rs.getInt(1);
+                LobbyVersion.bump();
                 return newGameID;
             } catch(SQLException e) {}
         } catch(SQLException |DataAccessException e) {}
@@ -176,44 +248,142 @@ public class SQLGameDAO implements GameDAO{
 
     @Override
     public Collection<AbbreviatedGameData> listGames() {
+        ArrayList<AbbreviatedGameData> games = new ArrayList<>();
+        GameListQuery query = GameListQuery.firstPage();
+        while(true) {
+            GamePage page = listGames(query);
+            if(page == null) {
+                return null;
+            }
+            games.addAll(page.games());
+            if(page.nextAfter() == null) {
+                return games;
+            }
+            query = new GameListQuery(page.nextAfter(), query.limit(), false, null, null);
+        }
+    }
+
+    /**
+     * Reads one page of active games in ID order. It never reads the game
+     * state columns, and it reads one row past the limit only to learn
+     * whether another page follows.
+     */
+    @Override
+    public GamePage listGames(GameListQuery query) {
+        StringBuilder statement = new StringBuilder("""
+                SELECT id, whiteUsername, blackUsername, gameName FROM GameData
+                WHERE isActive = TRUE AND id > ?
+                """);
+        if(query.openSeatsOnly()) {
+            statement.append("AND (whiteUsername IS NULL OR blackUsername IS NULL)\n");
+        }
+        if(query.namePrefix() != null) {
+            statement.append("AND gameName LIKE ?\n");
+        }
+        if(query.player() != null) {
+            statement.append("AND (whiteUsername = ? OR blackUsername = ?)\n");
+        }
+        statement.append("ORDER BY id LIMIT ?;");
         try(var conn = DatabaseManager.getConnection()) {
-            ArrayList<AbbreviatedGameData> games = new ArrayList<>();
-            var statement = """
-                    SELECT * FROM GameData
-                    WHERE isActive = ?;
-                    """;
-            try(var preparedStatement = conn.prepareStatement(statement)) {
-                preparedStatement.setBoolean(1, true);
+            try(var preparedStatement = conn.prepareStatement(statement.toString())) {
+                int parameter = 1;
+                preparedStatement.setInt(parameter++, query.after());
+                if(query.namePrefix() != null) {
+                    preparedStatement.setString(parameter++, likePrefix(query.namePrefix()));
+                }
+                if(query.player() != null) {
+                    preparedStatement.setString(parameter++, query.player());
+                    preparedStatement.setString(parameter++, query.player());
+                }
+                preparedStatement.setInt(parameter, query.limit() + 1);
                 try(var rs = preparedStatement.executeQuery()) {
+                    ArrayList<AbbreviatedGameData> games = new ArrayList<>();
                     while(rs.next()) {
                         int id = rs.getInt("id");
                         String whiteUsername = rs.getString("whiteUsername");
                         String blackUsername = rs.getString("blackUsername");
                         String gameName = rs.getString("gameName");
-                        AbbreviatedGameData nextGame = new AbbreviatedGameData(id, whiteUsername, blackUsername, gameName);
-                        games.add(nextGame);
+                        games.add(new AbbreviatedGameData(id, whiteUsername, blackUsername, gameName));
                     }
-                    return games;
-                } catch(SQLException e) {}
-            } catch(SQLException e) {}
+                    Integer nextAfter = null;
+                    if(games.size() > query.limit()) {
+                        games.removeLast();
+                        nextAfter = games.getLast().gameID();
+                    }
+                    return new GamePage(games, nextAfter);
+                }
+            }
         } catch(SQLException | DataAccessException e) {}
         return null;
     }
+    private static String likePrefix(String prefix) {
+        return prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+    /**
+     * Records a move by appending it to GameMoves, and every
+     * {@link #SNAPSHOT_INTERVAL} plies also stores the whole game. Both are
+     * written in one transaction, so the snapshot never gets ahead of the
+     * moves.
+     *
+     * @param game the game after the move was made
+     * @throws DataAccessException if the move was not stored, such as when the
+     * game does not exist or another move for the same ply was stored first
+     */
+    public void addMove(int gameID, ChessMove move, ChessGame game) throws DataAccessException {
+        int ply = plyOf(game);
+        try(var conn = DatabaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                var statement = """
+                    INSERT INTO GameMoves
+                    (gameID, ply, move)
+                    SELECT ?, ?, ? FROM GameData
+                    WHERE id = ?;
+                    """;
+                try(var preparedStatement = conn.prepareStatement(statement)) {
+                    preparedStatement.setInt(1, gameID);
+                    preparedStatement.setInt(2, ply);
+                    preparedStatement.setShort(3, GameCodec.encodeMove(move));
+                    preparedStatement.setInt(4, gameID);
+                    if(preparedStatement.executeUpdate() == 0) {
+                        throw new DataAccessException("Error: bad request");
+                    }
+                }
+                if(ply % SNAPSHOT_INTERVAL == 0) {
+                    writeSnapshot(conn, gameID, game);
+                }
+                conn.commit();
+            } catch(SQLException | DataAccessException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch(SQLException e) {
+            throw new DataAccessException("Error: " + e.getMessage());
+        }
+    }
+    /**
+     * Stores the whole game as the snapshot moves are replayed from.
+     */
     public void updateBoard(int gameID, ChessGame game) {
         try(var conn = DatabaseManager.getConnection()) {
-            var statement = """
-                UPDATE GameData
-                SET chessGame = ?
-                WHERE id = ?;
-                """;
-            try(var preparedStatement = conn.prepareStatement(statement)) {
-                var gameJson = new Gson().toJson(game);
-                preparedStatement.setString(1, gameJson);
-                preparedStatement.setInt(2, gameID);
-                preparedStatement.executeUpdate();
-            } catch(SQLException e) {}
+            writeSnapshot(conn, gameID, game);
         } catch(SQLException | DataAccessException e) {}
     }
+    private void writeSnapshot(Connection conn, int gameID, ChessGame game) throws SQLException {
+        var statement = """
+            UPDATE GameData
+            SET gameState = ?, snapshotPly = ?, chessGame = NULL
+            WHERE id = ?;
+            """;
+        try(var preparedStatement = conn.prepareStatement(statement)) {
+            preparedStatement.setBytes(1, GameCodec.encode(game));
+            preparedStatement.setInt(2, plyOf(game));
+            preparedStatement.setInt(3, gameID);
+            preparedStatement.executeUpdate();
+        }
+    }
     public void endGame(int gameID) {
         try(var conn = DatabaseManager.getConnection()) {
             var statement = """
@@ -227,12 +397,14 @@ public class SQLGameDAO implements GameDAO{
                 preparedStatement.executeUpdate();
             } catch(SQLException e) {}
         } catch(SQLException | DataAccessException e) {}
+        LobbyVersion.bump();
     }
     public void removePlayer(int gameID, String colorColumn) {
         if(!Objects.equals(colorColumn, null)) {
             try (var conn = DatabaseManager.getConnection()) {
                 playerInserter(null, colorColumn, gameID, conn);
             } catch (SQLException | DataAccessException e) {}
+            LobbyVersion.bump();
         }
     }
 }
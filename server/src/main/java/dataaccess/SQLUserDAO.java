@@ -96,7 +96,7 @@ public class SQLUserDAO implements UserDAO {
     }
 
     @Override
-    public void createUser(UserData newUser) {
+    public void createUser(UserData newUser) throws DataAccessException {
         String username = newUser.username();
         String hashedPassword = BCrypt.hashpw(newUser.password(), BCrypt.gensalt());
         String email = newUser.email();
@@ -111,7 +111,12 @@ public class SQLUserDAO implements UserDAO {
                 preparedStatement.setString(2, hashedPassword);
                 preparedStatement.setString(3, email);
                 preparedStatement.executeUpdate();
-            } catch(SQLException e) {}
-        } catch(SQLException | DataAccessException e) {}
+            }
+        } catch(SQLIntegrityConstraintViolationException e) {
+            // The username is the key, so a registration that raced this one got there first.
+            throw new DataAccessException("Error: already taken");
+        } catch(SQLException e) {
+            throw new DataAccessException("Error: " + e.getMessage());
+        }
     }
 }
@@ -6,5 +6,9 @@ public interface UserDAO {
     void clearData();
     boolean containsUsername(String username) throws DataAccessException;
     boolean getLogin(UserData login) throws DataAccessException;
-    void createUser(UserData newUser);
+    /**
+     * @throws DataAccessException "Error: already taken" if the username is
+     * already registered, such as by a registration that raced this one
+     */
+    void createUser(UserData newUser) throws DataAccessException;
 }
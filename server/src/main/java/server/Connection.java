@@ -3,20 +3,29 @@ package server;
 import org.eclipse.jetty.websocket.api.Session;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 public class Connection {
     public String username;
     public int gameID;
     public Session session;
+    public boolean binaryGames;
 
     public Connection(int gameID, String username, Session session) {
+        this(gameID, username, session, false);
+    }
+    public Connection(int gameID, String username, Session session, boolean binaryGames) {
         this.gameID = gameID;
         this.username =username;
         this.session = session;
+        this.binaryGames = binaryGames;
     }
     public void send(String msg) throws IOException {
         session.getRemote().sendString(msg);
     }
+    public void send(byte[] bytes) throws IOException {
+        session.getRemote().sendBytes(ByteBuffer.wrap(bytes));
+    }
     public static void sendBySession(Session session, String msg) throws IOException {
         session.getRemote().sendString(msg);
     }
@@ -1,6 +1,8 @@
 package server;
 
-import com.google.gson.Gson;
+import chess.ChessGame;
+import chess.ChessJson;
+import chess.GameCodec;
 import org.eclipse.jetty.websocket.api.Session;
 import websocket.messages.ServerMessage;
 
@@ -13,7 +15,10 @@ public class ConnectionHandler {
     public final ConcurrentHashMap<String, Connection> connections = new ConcurrentHashMap<>();
 
     public void add(int gameID, String username, Session session) {
-        var connection = new Connection(gameID, username, session);
+        add(gameID, username, session, false);
+    }
+    public void add(int gameID, String username, Session session, boolean binaryGames) {
+        var connection = new Connection(gameID, username, session, binaryGames);
         connections.put(username, connection);
     }
 
@@ -26,7 +31,7 @@ public class ConnectionHandler {
         for (var c : connections.values()) {
             if (c.session.isOpen()) {
                 if (!c.username.equals(excludeUsername) && c.gameID == gameID) {
-                    c.send(new Gson().toJson(serverMessage));
+                    c.send(ChessJson.GSON.toJson(serverMessage));
                 }
             } else {
                 removeList.add(c);
@@ -38,11 +43,60 @@ public class ConnectionHandler {
             connections.remove(c.username);
         }
     }
+    /**
+     * Sends a LOAD_GAME to everyone in the game, as a binary GameCodec frame to
+     * connections that asked for one and as JSON to the rest. Each form is
+     * built at most once.
+     */
+    public void broadcastGame(int gameID, String excludeUsername, ChessGame game) throws IOException {
+        var removeList = new ArrayList<Connection>();
+        GameFrames frames = new GameFrames(game);
+        for (var c : connections.values()) {
+            if (c.session.isOpen()) {
+                if (!c.username.equals(excludeUsername) && c.gameID == gameID) {
+                    frames.sendTo(c);
+                }
+            } else {
+                removeList.add(c);
+            }
+        }
+
+        for (var c : removeList) {
+            connections.remove(c.username);
+        }
+    }
+    public void sendGameToOne(String username, ChessGame game) throws IOException {
+        var c = connections.get(username);
+        new GameFrames(game).sendTo(c);
+    }
+    private static class GameFrames {
+        private final ChessGame game;
+        private String json;
+        private byte[] binary;
+
+        GameFrames(ChessGame game) {
+            this.game = game;
+        }
+        void sendTo(Connection c) throws IOException {
+            if(c.binaryGames) {
+                if(binary == null) {
+                    binary = GameCodec.encode(game);
+                }
+                c.send(binary);
+                return;
+            }
+            if(json == null) {
+                json = ChessJson.GSON.toJson(new ServerMessage(ServerMessage.ServerMessageType.LOAD_GAME,
+                        ChessJson.GSON.toJson(game)));
+            }
+            c.send(json);
+        }
+    }
     public void sendBadAuthOrID(Session session,ServerMessage serverMessage) throws IOException {
-        Connection.sendBySession(session, new Gson().toJson(serverMessage));
+        Connection.sendBySession(session, ChessJson.GSON.toJson(serverMessage));
     }
     public void sendToOne(String username, ServerMessage serverMessage) throws IOException {
         var c = connections.get(username);
-        c.send(new Gson().toJson(serverMessage));
+        c.send(ChessJson.GSON.toJson(serverMessage));
     }
 }
@@ -1,35 +1,80 @@
 package server;
 
-import com.google.gson.Gson;
-import records.AbbreviatedGameData;
+import chess.ChessJson;
+import dataaccess.LobbyVersion;
+import records.GameListQuery;
+import records.GamePage;
 import service.GamesService;
 import spark.Request;
 import spark.Response;
 import records.ResponseException;
 import records.JoinRequests;
 
-import java.util.ArrayList;
 import java.util.Map;
 
 public class GamesHandler {
     private static GamesService service = new GamesService();
 
     public GamesHandler() {}
+    /**
+     * Lists one page of games. The optional query parameters are after (the
+     * nextAfter of the previous page), limit, open=true for games with a free
+     * seat, name for a name prefix and player for a username.
+     * <p>
+     * Each listing carries an ETag for the lobby's version and the query. A
+     * request whose If-None-Match still matches gets 304 Not Modified without
+     * the games being read again.
+     */
     public static Object listGames(Request req, Response res) {
         var authToken = req.headers("Authorization");
-        ArrayList<AbbreviatedGameData> games = null;
+        GameListQuery query;
         try {
-            games = (ArrayList<AbbreviatedGameData>) service.listGames(authToken);
+            query = listQuery(req);
+        } catch(NumberFormatException e) {
+            res.status(400);
+            return ChessJson.GSON.toJson(Map.of("message", "Error: bad request"));
+        }
+        // Read before the games so a change during the query makes the tag stale rather than the listing.
+        String etag = LobbyVersion.etag(LobbyVersion.current(), query);
+        if(LobbyVersion.matches(req.headers("If-None-Match"), etag)) {
+            try {
+                service.authorize(authToken);
+            } catch(ResponseException resEx) {
+                res.status(401);
+                return ChessJson.GSON.toJson(Map.of("message", "Error: unauthorized"));
+            }
+            res.header("ETag", etag);
+            res.status(304);
+            return "";
+        }
+        GamePage page;
+        try {
+            page = service.listGames(authToken, query);
         } catch(ResponseException resEx) {
             String message = "Error: unauthorized";
             res.status(401);
-            return new Gson().toJson(Map.of("message", message));
+            return ChessJson.GSON.toJson(Map.of("message", message));
         }
-        return new Gson().toJson(Map.of("games", games));
+        if(page == null) {
+            res.status(500);
+            return ChessJson.GSON.toJson(Map.of("message", "Error: unable to list games"));
+        }
+        res.header("ETag", etag);
+        return ChessJson.GSON.toJson(page);
+    }
+    private static GameListQuery listQuery(Request req) {
+        String after = req.queryParams("after");
+        String limit = req.queryParams("limit");
+        return new GameListQuery(
+                after == null ? 0 : Integer.parseInt(after),
+                limit == null ? GameListQuery.DEFAULT_LIMIT : Integer.parseInt(limit),
+                Boolean.parseBoolean(req.queryParams("open")),
+                req.queryParams("name"),
+                req.queryParams("player"));
     }
     public static Object createGame(Request req, Response res) {
         var authToken = req.headers("Authorization");
-        var gameRequest = new Gson().fromJson(req.body(), Map.class);
+        var gameRequest = ChessJson.GSON.fromJson(req.body(), Map.class);
         String gameName = (String) gameRequest.get("gameName");
         int gameID;
         try {
@@ -37,20 +82,20 @@ public class GamesHandler {
         } catch(ResponseException resEx) {
             String message = "Error: unauthorized";
             res.status(401);
-            return new Gson().toJson(Map.of("message", message));
+            return ChessJson.GSON.toJson(Map.of("message", message));
         }
-        return new Gson().toJson(Map.of("gameID", gameID));
+        return ChessJson.GSON.toJson(Map.of("gameID", gameID));
     }
     public static Object joinGame(Request req, Response res) {
         var authToken = req.headers("Authorization");
-        var joinReq = new Gson().fromJson(req.body(), JoinRequests.class);
+        var joinReq = ChessJson.GSON.fromJson(req.body(), JoinRequests.class);
         var playerColor = joinReq.playerColor();
         int gameID = joinReq.gameID();
         try {
             service.joinGame(authToken, playerColor, gameID);
         } catch(ResponseException resEx) {
             res.status(resEx.getStatusCode());
-            return new Gson().toJson(Map.of("message", resEx.getMessage()));
+            return ChessJson.GSON.toJson(Map.of("message", resEx.getMessage()));
         }
         res.status(200);
         return "{}";
@@ -1,6 +1,6 @@
 package server;
 
-import com.google.gson.Gson;
+import chess.ChessJson;
 import records.AuthData;
 import records.UserData;
 import service.UserService;
@@ -15,11 +15,11 @@ public class UserHandler {
 
     public UserHandler() {}
     public static Object register(Request req, Response res) {
-        var newUser = new Gson().fromJson(req.body(), UserData.class);
+        var newUser = ChessJson.GSON.fromJson(req.body(), UserData.class);
         if((newUser.username() == null) || (newUser.password() == null) || (newUser.email() == null)) {
             String message = "Error: bad request";
             res.status(400);
-            return new Gson().toJson(Map.of("message", message));
+            return ChessJson.GSON.toJson(Map.of("message", message));
         }
         AuthData newAuth = null;
         try {
@@ -27,21 +27,21 @@ public class UserHandler {
         } catch(ResponseException resEx) {
             String message = "Error: already taken";
             res.status(403);
-            return new Gson().toJson(Map.of("message", message));
+            return ChessJson.GSON.toJson(Map.of("message", message));
         }
-        return new Gson().toJson(newAuth);
+        return ChessJson.GSON.toJson(newAuth);
     }
     public static Object login(Request req, Response res) {
-        var userLogin = new Gson().fromJson(req.body(), UserData.class);
+        var userLogin = ChessJson.GSON.fromJson(req.body(), UserData.class);
         AuthData newAuth = null;
         try {
             newAuth = service.login(userLogin);
         } catch(ResponseException resEx) {
             String message = "Error: unauthorized";
             res.status(401);
-            return new Gson().toJson(Map.of("message", message));
+            return ChessJson.GSON.toJson(Map.of("message", message));
         }
-        return new Gson().toJson(newAuth);
+        return ChessJson.GSON.toJson(newAuth);
     }
     public static Object logout(Request req, Response res) {
         var authToken = req.headers("Authorization");
@@ -50,7 +50,7 @@ public class UserHandler {
         } catch(ResponseException resEx) {
             String message = "Error: unauthorized";
             res.status(401);
-            return new Gson().toJson(Map.of("message", message));
+            return ChessJson.GSON.toJson(Map.of("message", message));
         }
         return "{}";
     }
@@ -1,7 +1,8 @@
 package server;
 import chess.*;
-import com.google.gson.Gson;
-import dataaccess.SQLAuthDAO;
+import dataaccess.AuthDAO;
+import dataaccess.CachingAuthDAO;
+import dataaccess.DataAccessException;
 import dataaccess.SQLGameDAO;
 import org.eclipse.jetty.websocket.api.Session;
 import org.eclipse.jetty.websocket.api.annotations.OnWebSocketMessage;
@@ -16,7 +17,7 @@ import java.util.Objects;
 @WebSocket
 public class WebSocketHandler {
     private final ConnectionHandler connections = new ConnectionHandler();
-    SQLAuthDAO authDAO = new SQLAuthDAO();
+    AuthDAO authDAO = CachingAuthDAO.shared();
     SQLGameDAO gameDAO = new SQLGameDAO();
     /*public enum NullDataType {
         BAD_GAME,
@@ -25,15 +26,15 @@ public class WebSocketHandler {
 
     @OnWebSocketMessage
     public void onMessage(Session session, String message) throws IOException {
-        UserGameCommand command = new Gson().fromJson(message, UserGameCommand.class);
+        UserGameCommand command = ChessJson.GSON.fromJson(message, UserGameCommand.class);
         switch(command.getCommandType()) {
-            case CONNECT -> connect(session, command.getAuthToken(), command.getGameID());
+            case CONNECT -> connect(session, command.getAuthToken(), command.getGameID(), command.getBinaryGames());
             case MAKE_MOVE -> makeMove(session, command.getAuthToken(), command.getGameID(), command.getMove());
             case RESIGN -> resign(session, command.getAuthToken(), command.getGameID());
             case LEAVE -> leave(session, command.getAuthToken(), command.getGameID());
         }
     }
-    private void connect(Session session, String authToken, int gameID) {
+    private void connect(Session session, String authToken, int gameID, boolean binaryGames) {
         String username = authDAO.getUsername(authToken);
         GameData game = gameDAO.getGame(gameID);
         if(gateKeep(session, game, username, gameID)) {
@@ -42,9 +43,8 @@ public class WebSocketHandler {
         String black = game.blackUsername();
         String white = game.whiteUsername();
         ChessGame chessGame = game.chessGame();
-        String chessGameString = new Gson().toJson(chessGame);
 
-        connections.add(gameID, username, session);
+        connections.add(gameID, username, session, binaryGames);
         String userJoined = null;
         if(black != null && username.equals(black)) {
             userJoined = String.format("%s joined the game as black\n", username);
@@ -56,10 +56,9 @@ public class WebSocketHandler {
             userJoined = String.format("%s joined the game as an observer\n", username);
         }
         ServerMessage joinNotice = new ServerMessage(ServerMessage.ServerMessageType.NOTIFICATION, userJoined);
-        ServerMessage gameLoad = new ServerMessage(ServerMessage.ServerMessageType.LOAD_GAME, chessGameString);
         try {
             connections.broadcast(gameID, username, joinNotice);
-            connections.sendToOne(username, gameLoad);
+            connections.sendGameToOne(username, chessGame);
         } catch(IOException e) {}
     }
     private void makeMove(Session session, String authToken, int gameID, ChessMove move) {
@@ -77,22 +76,12 @@ public class WebSocketHandler {
         String movedPiece = pieceName(piece.getPieceType());
         String startingString = positionString(move.getStartPosition());
         String endingString = positionString(move.getEndPosition());
-        boolean wCheck = false;
-        boolean wCheckmate = false;
-        boolean wStalemate = false;
-        boolean bCheck = false;
-        boolean bCheckmate = false;
-        boolean bStalemate = false;
+        GameStatus status;
 
         try {
             theGame.makeMove(move);
-            wCheck = theGame.isInCheck(ChessGame.TeamColor.WHITE);
-            wCheckmate = theGame.isInCheckmate(ChessGame.TeamColor.WHITE);
-            wStalemate = theGame.isInStalemate(ChessGame.TeamColor.WHITE);
-            bCheck = theGame.isInCheck(ChessGame.TeamColor.BLACK);
-            bCheckmate = theGame.isInCheckmate(ChessGame.TeamColor.BLACK);
-            bStalemate = theGame.isInStalemate(ChessGame.TeamColor.BLACK);
-            gameDAO.updateBoard(gameID, theGame);
+            status = theGame.evaluateStatus();
+            gameDAO.addMove(gameID, move, theGame);
         } catch(InvalidMoveException e) {
             ServerMessage error = new ServerMessage(ServerMessage.ServerMessageType.ERROR);
             error.setErrorMessage("Error: move is invalid");
@@ -100,14 +89,18 @@ public class WebSocketHandler {
                 connections.sendToOne(username, error);
             } catch(IOException ex) {}
             return;
+        } catch(DataAccessException e) {
+            // Nobody else hears about a move that was not saved, so the boards stay in step with the database.
+            ServerMessage error = new ServerMessage(ServerMessage.ServerMessageType.ERROR);
+            error.setErrorMessage("Error: move could not be saved, please try again");
+            try {
+                connections.sendToOne(username, error);
+            } catch(IOException ex) {}
+            return;
         }
 
-        GameData updatedGame = gameDAO.getGame(gameID);
-        String whiteUser = updatedGame.whiteUsername();
-        String blackUser = updatedGame.blackUsername();
-        ChessGame chessGame = updatedGame.chessGame();
-        String chessGameString = new Gson().toJson(chessGame);
-        ServerMessage gameUpdate = new ServerMessage(ServerMessage.ServerMessageType.LOAD_GAME, chessGameString);
+        String whiteUser = game.whiteUsername();
+        String blackUser = game.blackUsername();
 
         StringBuilder moveMessage = new StringBuilder(String.format("%s moved %s from %s to %s", username, movedPiece,
                 startingString, endingString));
@@ -116,31 +109,27 @@ public class WebSocketHandler {
         }
         moveMessage.append(".\n");
         StringBuilder aftermath = new StringBuilder();
-        if(wCheckmate) {
-            aftermath.append(String.format("%s/white is in checkmate.\n", whiteUser));
-            gameDAO.endGame(gameID);
+        String defender = whiteUser + "/white";
+        if(status.teamToMove() == ChessGame.TeamColor.BLACK) {
+            defender = blackUser + "/black";
         }
-        if(bCheckmate) {
-            aftermath.append(String.format("%s/black is in checkmate.\n", blackUser));
+        if(status.isCheckmate()) {
+            aftermath.append(String.format("%s is in checkmate.\n", defender));
+            gameDAO.endGame(gameID);
+        } else if(status.isDraw()) {
+            aftermath.append(String.format("The game is drawn by %s.\n", drawName(status.draw())));
+            gameDAO.endGame(gameID);
+        } else if(status.inCheck()) {
+            aftermath.append(String.format("%s is in check.\n", defender));
+        } else if(status.isStalemate()) {
+            aftermath.append("The game is in stalemate.\n");
             gameDAO.endGame(gameID);
-        }
-        if(!wCheckmate && !bCheckmate) {
-            if(wCheck) {
-                aftermath.append(String.format("%s/white is in check.\n", whiteUser));
-            }
-            if(bCheck) {
-                aftermath.append(String.format("%s/black is in check.\n", blackUser));
-            }
-            if(wStalemate && bStalemate) {
-                aftermath.append("The game is in stalemate.\n");
-                gameDAO.endGame(gameID);
-            }
         }
         ServerMessage announceMoveMessage = new ServerMessage(ServerMessage.ServerMessageType.NOTIFICATION,
                 moveMessage.toString());
 
         try {
-            connections.broadcast(gameID, null, gameUpdate);
+            connections.broadcastGame(gameID, null, theGame);
             connections.broadcast(gameID, username, announceMoveMessage);
             if(!aftermath.isEmpty()) {
                 ServerMessage aftermathMessage = new ServerMessage(ServerMessage.ServerMessageType.NOTIFICATION,
@@ -149,6 +138,25 @@ public class WebSocketHandler {
             }
         } catch(IOException e) {}
     }
+    private String drawName(GameStatus.DrawReason reason) {
+        switch (reason) {
+            case THREEFOLD_REPETITION -> {
+                return "threefold repetition";
+            }
+            case FIVEFOLD_REPETITION -> {
+                return "fivefold repetition";
+            }
+            case FIFTY_MOVE_RULE -> {
+                return "the fifty-move rule";
+            }
+            case SEVENTY_FIVE_MOVE_RULE -> {
+                return "the seventy-five-move rule";
+            }
+            default -> {
+                return "insufficient material";
+            }
+        }
+    }
     private String pieceName(ChessPiece.PieceType piece) {
         switch (piece) {
             case PAWN -> {
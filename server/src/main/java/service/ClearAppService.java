@@ -1,11 +1,12 @@
 package service;
 
-import dataaccess.SQLAuthDAO;
+import dataaccess.AuthDAO;
+import dataaccess.CachingAuthDAO;
 import dataaccess.SQLGameDAO;
 import dataaccess.SQLUserDAO;
 
 public class ClearAppService {
-    private static SQLAuthDAO authDAO = new SQLAuthDAO();
+    private static AuthDAO authDAO = CachingAuthDAO.shared();
     private static SQLGameDAO gameDAO = new SQLGameDAO();
     private static SQLUserDAO userDAO = new SQLUserDAO();
 
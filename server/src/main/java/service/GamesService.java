@@ -2,8 +2,11 @@ package service;
 
 import chess.ChessGame;
 import records.AbbreviatedGameData;
+import records.GameListQuery;
+import records.GamePage;
 import dataaccess.DataAccessException;
-import dataaccess.SQLAuthDAO;
+import dataaccess.AuthDAO;
+import dataaccess.CachingAuthDAO;
 import dataaccess.SQLGameDAO;
 import records.ResponseException;
 
@@ -11,36 +14,45 @@ import java.util.Collection;
 import java.util.Objects;
 
 public class GamesService {
-    private static SQLAuthDAO authDAO = new SQLAuthDAO();
+    private static AuthDAO authDAO = CachingAuthDAO.shared();
     private static SQLGameDAO gameDAO = new SQLGameDAO();
 
     public GamesService() {}
     public static Collection<AbbreviatedGameData> listGames(String authToken) throws ResponseException {
         try {
-            if(authDAO.containsAuth(authToken)) {
-                return gameDAO.listGames();
-            }
+            authDAO.getAuth(authToken);
+            return gameDAO.listGames();
+        } catch(DataAccessException e) {
+            throw new ResponseException(401, "");
+        }
+    }
+    public static void authorize(String authToken) throws ResponseException {
+        try {
+            authDAO.getAuth(authToken);
+        } catch(DataAccessException e) {
+            throw new ResponseException(401, "");
+        }
+    }
+    public static GamePage listGames(String authToken, GameListQuery query) throws ResponseException {
+        try {
+            authDAO.getAuth(authToken);
+            return gameDAO.listGames(query);
         } catch(DataAccessException e) {
             throw new ResponseException(401, "");
         }
-        return null;
     }
     public static Object createGame(String authToken, String gameName) throws ResponseException {
         try {
-            if(authDAO.containsAuth(authToken)) {
-                return gameDAO.createGame(gameName);
-            }
+            authDAO.getAuth(authToken);
+            return gameDAO.createGame(gameName);
         } catch(DataAccessException e) {
             throw new ResponseException(401, "");
         }
-        return null;
     }
     public void joinGame(String authToken, ChessGame.TeamColor playerColor, int gameID) throws ResponseException {
         try {
-            if(authDAO.containsAuth(authToken)) {
-                String username = authDAO.getUsername(authToken);
-                gameDAO.joinGame(username, playerColor, gameID);
-            }
+            String username = authDAO.getAuth(authToken).username();
+            gameDAO.joinGame(username, playerColor, gameID);
         } catch(DataAccessException e) {
             if(Objects.equals(e.getMessage(), "Error: unauthorized")) {
                 throw new ResponseException(401, "Error: unauthorized");
@@ -51,6 +63,7 @@ public class GamesService {
             if(Objects.equals(e.getMessage(), "Error: bad request")) {
                 throw new ResponseException(400, "Error: bad request");
             }
+            throw new ResponseException(500, e.getMessage());
         }
     }
 }
@@ -5,9 +5,11 @@ import records.ResponseException;
 import records.AuthData;
 import records.UserData;
 
+import java.util.Objects;
+
 public class UserService {
     private static SQLUserDAO userDAO = new SQLUserDAO();
-    private static SQLAuthDAO authDAO = new SQLAuthDAO();
+    private static AuthDAO authDAO = CachingAuthDAO.shared();
 
     public UserService() {}
     public AuthData register(UserData newUser) throws ResponseException {
@@ -16,7 +18,14 @@ public class UserService {
         } catch(DataAccessException e) {
             throw new ResponseException(403, "already taken");
         }
-        userDAO.createUser(newUser);
+        try {
+            userDAO.createUser(newUser);
+        } catch(DataAccessException e) {
+            if(Objects.equals(e.getMessage(), "Error: already taken")) {
+                throw new ResponseException(403, "already taken");
+            }
+            throw new ResponseException(500, e.getMessage());
+        }
         return authDAO.createAuth(newUser.username());
     }
     public AuthData login(UserData userLogin) throws ResponseException {
@@ -31,9 +40,8 @@ public class UserService {
     }
     public void logout(String authToken) throws ResponseException {
         try {
-            if(authDAO.containsAuth(authToken)) {
-                authDAO.deleteAuth(authToken);
-            }
+            authDAO.getAuth(authToken);
+            authDAO.deleteAuth(authToken);
         } catch(DataAccessException e) {
             throw new ResponseException(401, "unauthorized");
         }
@@ -0,0 +1,124 @@
+package dataaccess;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import records.AuthData;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CachingAuthDAOTest {
+    int lookups = 0;
+    long now = 0;
+    boolean databaseDown = false;
+    Runnable duringLookup = () -> {};
+    MemoryAuthDAO memoryDAO = new MemoryAuthDAO() {
+        @Override
+        public AuthData getAuth(String authToken) throws DataAccessException {
+            ++lookups;
+            if(databaseDown) {
+                throw new DataAccessException("Error: connection refused");
+            }
+            AuthData auth = super.getAuth(authToken);
+            // Runs after the read, as a change racing a slow query would.
+            duringLookup.run();
+            return auth;
+        }
+    };
+    CachingAuthDAO authDAO = new CachingAuthDAO(memoryDAO, 2, 1000, 100, () -> now);
+    String username1 = "username1";
+
+    @AfterEach
+    void tearDown() {
+        authDAO.clearData();
+    }
+    @Test
+    void getAuthPositive() throws DataAccessException {
+        AuthData auth = authDAO.createAuth(username1);
+        assertEquals(auth, authDAO.getAuth(auth.authToken()));
+        assertEquals(username1, authDAO.getUsername(auth.authToken()));
+        assertTrue(authDAO.containsAuth(auth.authToken()));
+        assertEquals(0, lookups);
+        assertEquals(3, authDAO.stats().hits());
+    }
+    @Test
+    void getAuthNegative() {
+        assertThrows(DataAccessException.class, ()->authDAO.getAuth("bad"));
+        assertThrows(DataAccessException.class, ()->authDAO.getAuth("bad"));
+        assertNull(authDAO.getUsername("bad"));
+        assertEquals(1, lookups);
+        assertEquals(2, authDAO.stats().negativeHits());
+        now = 101;
+        assertThrows(DataAccessException.class, ()->authDAO.getAuth("bad"));
+        assertEquals(2, lookups);
+    }
+    @Test
+    void expiryPositive() throws DataAccessException {
+        AuthData auth = authDAO.createAuth(username1);
+        now = 1001;
+        assertEquals(auth, authDAO.getAuth(auth.authToken()));
+        assertEquals(1, lookups);
+        assertEquals(auth, authDAO.getAuth(auth.authToken()));
+        assertEquals(1, lookups);
+        assertEquals(0.5, authDAO.stats().hitRate(), 1e-9);
+    }
+    @Test
+    void evictionPositive() throws DataAccessException {
+        AuthData first = authDAO.createAuth(username1);
+        AuthData second = authDAO.createAuth("username2");
+        authDAO.getAuth(first.authToken());
+        authDAO.createAuth("username3");
+        assertEquals(2, authDAO.stats().size());
+        assertEquals(1, authDAO.stats().evictions());
+        authDAO.getAuth(first.authToken());
+        assertEquals(0, lookups);
+        authDAO.getAuth(second.authToken());
+        assertEquals(1, lookups);
+    }
+    @Test
+    void deleteAuthNegative() throws DataAccessException {
+        AuthData auth = authDAO.createAuth(username1);
+        assertTrue(authDAO.containsAuth(auth.authToken()));
+        authDAO.deleteAuth(auth.authToken());
+        assertThrows(DataAccessException.class, ()->authDAO.getAuth(auth.authToken()));
+        AuthData other = authDAO.createAuth(username1);
+        authDAO.clearData();
+        assertThrows(DataAccessException.class, ()->authDAO.containsAuth(other.authToken()));
+    }
+    @Test
+    void lookupFailureNegative() throws DataAccessException {
+        AuthData auth = authDAO.createAuth(username1);
+        now = 1001;
+        databaseDown = true;
+        assertThrows(DataAccessException.class, ()->authDAO.getAuth(auth.authToken()));
+        databaseDown = false;
+        assertEquals(auth, authDAO.getAuth(auth.authToken()));
+        assertEquals(2, lookups);
+        assertEquals(0, authDAO.stats().negativeHits());
+    }
+    @Test
+    void racingInvalidationPositive() throws DataAccessException {
+        AuthData auth = authDAO.createAuth(username1);
+        AuthData other = authDAO.createAuth("username2");
+        now = 1001;
+        // Logins and logouts of other tokens while a lookup runs do not stop it being cached.
+        duringLookup = () -> {
+            authDAO.createAuth("username3");
+            authDAO.deleteAuth(other.authToken());
+        };
+        assertEquals(auth, authDAO.getAuth(auth.authToken()));
+        duringLookup = () -> {};
+        assertEquals(auth, authDAO.getAuth(auth.authToken()));
+        assertEquals(1, lookups);
+    }
+    @Test
+    void racingInvalidationNegative() throws DataAccessException {
+        AuthData auth = authDAO.createAuth(username1);
+        now = 1001;
+        // A logout of the token being looked up keeps the answer read before it out of the cache.
+        duringLookup = () -> authDAO.deleteAuth(auth.authToken());
+        authDAO.getAuth(auth.authToken());
+        duringLookup = () -> {};
+        assertThrows(DataAccessException.class, ()->authDAO.getAuth(auth.authToken()));
+        assertEquals(2, lookups);
+    }
+}
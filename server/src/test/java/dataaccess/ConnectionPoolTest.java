@@ -0,0 +1,195 @@
+package dataaccess;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConnectionPoolTest {
+    ArrayList<boolean[]> physicalClosed = new ArrayList<>();
+    ArrayList<boolean[]> statementsClosed = new ArrayList<>();
+    ConnectionPool pool;
+
+    // Stands in for a real connection: it only tracks whether it has been closed.
+    Connection fakeConnection() {
+        boolean[] closed = {false};
+        physicalClosed.add(closed);
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] {Connection.class}, (proxy, method, args) -> switch(method.getName()) {
+                    case "close" -> {
+                        closed[0] = true;
+                        yield null;
+                    }
+                    case "isClosed" -> closed[0];
+                    case "isValid" -> !closed[0];
+                    case "getAutoCommit" -> true;
+                    case "prepareStatement" -> fakeStatement();
+                    default -> null;
+                });
+    }
+    PreparedStatement fakeStatement() {
+        boolean[] closed = {false};
+        statementsClosed.add(closed);
+        return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                new Class<?>[] {PreparedStatement.class}, (proxy, method, args) -> switch(method.getName()) {
+                    case "close" -> {
+                        closed[0] = true;
+                        yield null;
+                    }
+                    case "isClosed" -> closed[0];
+                    case "executeUpdate" -> 1;
+                    default -> null;
+                });
+    }
+    ConnectionPool newPool(int minSize, int maxSize, long timeoutMillis, long leakMillis) {
+        pool = new ConnectionPool(this::fakeConnection, minSize, maxSize, timeoutMillis, 0, 600000, leakMillis, 2, 0);
+        return pool;
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+    @Test
+    void reusesConnectionsPositive() throws SQLException {
+        newPool(0, 2, 100, 0);
+        try(var conn = pool.borrow()) {
+            assertFalse(conn.isClosed());
+        }
+        try(var conn = pool.borrow()) {
+            assertFalse(conn.isClosed());
+        }
+        assertEquals(1, physicalClosed.size());
+        assertFalse(physicalClosed.getFirst()[0]);
+        ConnectionPool.Stats stats = pool.stats();
+        assertEquals(1, stats.created());
+        assertEquals(2, stats.borrowed());
+        assertEquals(1, stats.idle());
+        assertEquals(0, stats.inUse());
+    }
+    @Test
+    void closedHandleNegative() throws SQLException {
+        newPool(0, 1, 100, 0);
+        var conn = pool.borrow();
+        conn.close();
+        assertTrue(conn.isClosed());
+        assertThrows(SQLException.class, conn::getAutoCommit);
+        conn.close();
+        assertEquals(1, pool.stats().idle());
+    }
+    @Test
+    void maxSizePositive() throws SQLException {
+        newPool(0, 2, 50, 0);
+        var first = pool.borrow();
+        var second = pool.borrow();
+        assertThrows(SQLException.class, () -> pool.borrow());
+        ConnectionPool.Stats stats = pool.stats();
+        assertEquals(2, stats.open());
+        assertEquals(1, stats.timedOut());
+        first.close();
+        try(var third = pool.borrow()) {
+            assertFalse(third.isClosed());
+        }
+        second.close();
+        assertEquals(2, physicalClosed.size());
+    }
+    @Test
+    void waitsForReturnPositive() throws Exception {
+        newPool(0, 1, 5000, 0);
+        var held = pool.borrow();
+        Thread returner = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+                held.close();
+            } catch(InterruptedException | SQLException e) {}
+        });
+        returner.start();
+        try(var conn = pool.borrow()) {
+            assertFalse(conn.isClosed());
+        }
+        returner.join();
+        assertEquals(1, pool.stats().waited());
+        assertEquals(1, pool.stats().created());
+    }
+    @Test
+    void discardsBrokenNegative() throws SQLException {
+        newPool(0, 1, 100, 0);
+        pool.borrow().close();
+        physicalClosed.getFirst()[0] = true;
+        try(var conn = pool.borrow()) {
+            assertFalse(conn.isClosed());
+        }
+        ConnectionPool.Stats stats = pool.stats();
+        assertEquals(2, stats.created());
+        assertEquals(1, stats.discarded());
+        assertEquals(1, stats.open());
+    }
+    @Test
+    void maintenancePositive() throws Exception {
+        newPool(2, 4, 100, 1);
+        pool.maintain();
+        assertEquals(2, pool.stats().idle());
+        var conn = pool.borrow();
+        Thread.sleep(10);
+        pool.maintain();
+        assertEquals(1, pool.stats().leaked());
+        conn.close();
+    }
+    @Test
+    void statementCachePositive() throws SQLException {
+        newPool(0, 1, 100, 0);
+        String sql = "SELECT username FROM AuthData WHERE authToken = ?;";
+        for(int i = 0; i < 3; ++i) {
+            try(var conn = pool.borrow(); var statement = conn.prepareStatement(sql)) {
+                statement.setString(1, "token");
+                assertEquals(1, statement.executeUpdate());
+                assertSame(conn, statement.getConnection());
+            }
+        }
+        assertEquals(1, statementsClosed.size());
+        assertFalse(statementsClosed.getFirst()[0]);
+        ConnectionPool.Stats stats = pool.stats();
+        assertEquals(2, stats.statementHits());
+        assertEquals(1, stats.statementMisses());
+        assertEquals(2.0 / 3, stats.statementHitRate(), 1e-9);
+    }
+    @Test
+    void statementCacheNegative() throws SQLException {
+        newPool(0, 1, 100, 0);
+        try(var conn = pool.borrow()) {
+            var statement = conn.prepareStatement("SELECT 1;");
+            // Still open, so the same SQL gets its own statement.
+            try(var second = conn.prepareStatement("SELECT 1;")) {
+                assertFalse(second.isClosed());
+            }
+            statement.close();
+            assertThrows(SQLException.class, () -> statement.setInt(1, 1));
+            conn.prepareStatement("SELECT 2;").close();
+            conn.prepareStatement("SELECT 3;").close();
+        }
+        assertEquals(4, statementsClosed.size());
+        assertTrue(statementsClosed.get(0)[0]);
+        assertTrue(statementsClosed.get(1)[0]);
+        assertEquals(1, pool.stats().statementEvictions());
+        assertEquals(0, pool.stats().statementHits());
+    }
+    @Test
+    void uncachedStatementClosedNegative() throws SQLException {
+        newPool(0, 1, 100, 0);
+        var conn = pool.borrow();
+        var cached = conn.prepareStatement("SELECT 1;");
+        // Neither is closed by the borrower; the uncached one must not outlive the borrow.
+        conn.prepareStatement("SELECT 1;");
+        conn.close();
+        assertEquals(2, statementsClosed.size());
+        assertFalse(statementsClosed.get(0)[0]);
+        assertTrue(statementsClosed.get(1)[0]);
+        assertTrue(cached.isClosed());
+    }
+}
@@ -0,0 +1,143 @@
+package dataaccess;
+
+import chess.ChessGame;
+import records.AbbreviatedGameData;
+import records.GameListQuery;
+import records.GamePage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MemoryGameDAOTest {
+    MemoryGameDAO gameDAO = new MemoryGameDAO();
+    String gameName1 = "gameName1";
+
+    @AfterEach
+    void tearDown() {
+        gameDAO.clearData();
+    }
+    @Test
+    void createGamePositive() {
+        int gameID1 = gameDAO.createGame(gameName1);
+        int gameID2 = gameDAO.createGame("gameName2");
+        assertEquals(1, gameID1);
+        assertEquals(2, gameID2);
+        assertEquals(gameName1, gameDAO.getGame(gameID1).gameName());
+        assertNull(gameDAO.getGame(3));
+    }
+    @Test
+    void joinGamePositive() throws DataAccessException {
+        int gameID1 = gameDAO.createGame(gameName1);
+        gameDAO.joinGame("white", ChessGame.TeamColor.WHITE, gameID1);
+        gameDAO.joinGame("black", ChessGame.TeamColor.BLACK, gameID1);
+        AbbreviatedGameData abbreviation = new AbbreviatedGameData(gameID1, "white", "black", gameName1);
+        assertEquals(abbreviation, ((ArrayList<AbbreviatedGameData>) gameDAO.listGames()).getFirst());
+    }
+    @Test
+    void joinGameNegative() throws Exception {
+        int gameID1 = gameDAO.createGame(gameName1);
+        assertThrows(DataAccessException.class, ()->gameDAO.joinGame("user", ChessGame.TeamColor.WHITE, gameID1 + 1));
+        assertThrows(DataAccessException.class, ()->gameDAO.joinGame("user", null, gameID1));
+        // Many players race for the same seat; exactly one of them gets it.
+        int players = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger seated = new AtomicInteger();
+        ArrayList<Thread> threads = new ArrayList<>();
+        for(int i = 0; i < players; ++i) {
+            String username = "user" + i;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                    gameDAO.joinGame(username, ChessGame.TeamColor.WHITE, gameID1);
+                    seated.incrementAndGet();
+                } catch(DataAccessException | InterruptedException e) {}
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for(Thread thread:threads) {
+            thread.join();
+        }
+        assertEquals(1, seated.get());
+        assertNotNull(gameDAO.getGame(gameID1).whiteUsername());
+    }
+    @Test
+    void listGamesPagePositive() throws DataAccessException {
+        for(int i = 1; i <= 5; ++i) {
+            gameDAO.createGame(i % 2 == 0 ? "even" + i : "odd" + i);
+        }
+        gameDAO.joinGame("player", ChessGame.TeamColor.WHITE, 1);
+        gameDAO.joinGame("other", ChessGame.TeamColor.BLACK, 1);
+        GamePage first = gameDAO.listGames(new GameListQuery(0, 2, false, null, null));
+        assertEquals(2, first.games().size());
+        assertEquals(Integer.valueOf(2), first.nextAfter());
+        GamePage last = gameDAO.listGames(new GameListQuery(first.nextAfter(), 3, false, null, null));
+        assertEquals(3, last.games().get(0).gameID());
+        assertEquals(3, last.games().size());
+        assertNull(last.nextAfter());
+        assertEquals(4, gameDAO.listGames(new GameListQuery(0, 10, true, null, null)).games().size());
+        assertEquals(2, gameDAO.listGames(new GameListQuery(0, 10, false, "even", null)).games().size());
+        assertEquals(1, gameDAO.listGames(new GameListQuery(0, 10, false, null, "player")).games().getFirst().gameID());
+        // A filtered page still ends on the last game it returned, not on ones skipped after it.
+        GamePage odd = gameDAO.listGames(new GameListQuery(0, 1, false, "odd", null));
+        assertEquals(Integer.valueOf(1), odd.nextAfter());
+        assertEquals(3, gameDAO.listGames(new GameListQuery(odd.nextAfter(), 1, false, "odd", null)).games()
+                .getFirst().gameID());
+    }
+    @Test
+    void listGamesPageNegative() {
+        gameDAO.createGame("100%");
+        gameDAO.createGame("1000");
+        assertEquals(1, gameDAO.listGames(new GameListQuery(0, 10, false, "100%", null)).games().size());
+        assertTrue(gameDAO.listGames(new GameListQuery(2, 10, false, null, null)).games().isEmpty());
+        assertTrue(gameDAO.listGames(new GameListQuery(0, 10, false, null, "nobody")).games().isEmpty());
+    }
+    @Test
+    void lobbyVersionPositive() throws DataAccessException {
+        long before = LobbyVersion.current();
+        int gameID1 = gameDAO.createGame(gameName1);
+        long created = LobbyVersion.current();
+        assertTrue(created > before);
+        GameListQuery query = GameListQuery.firstPage();
+        assertNotEquals(LobbyVersion.etag(before, query), LobbyVersion.etag(created, query));
+        gameDAO.joinGame("white", ChessGame.TeamColor.WHITE, gameID1);
+        assertTrue(LobbyVersion.current() > created);
+    }
+    @Test
+    void lobbyVersionNegative() throws DataAccessException {
+        int gameID1 = gameDAO.createGame(gameName1);
+        gameDAO.joinGame("white", ChessGame.TeamColor.WHITE, gameID1);
+        long joined = LobbyVersion.current();
+        gameDAO.getGame(gameID1);
+        gameDAO.listGames();
+        assertThrows(DataAccessException.class, ()->gameDAO.joinGame("other", ChessGame.TeamColor.WHITE, gameID1));
+        assertEquals(joined, LobbyVersion.current());
+    }
+    @Test
+    void etagMatchesPositive() {
+        String etag = LobbyVersion.etag(LobbyVersion.current(), GameListQuery.firstPage());
+        assertTrue(LobbyVersion.matches(etag, etag));
+        assertTrue(LobbyVersion.matches("W/" + etag, etag));
+        assertTrue(LobbyVersion.matches("\"other\", W/\"a,b\" , " + etag, etag));
+        assertTrue(LobbyVersion.matches(" * ", etag));
+        assertEquals(etag, LobbyVersion.etag(LobbyVersion.current(),
+                new GameListQuery(0, GameListQuery.DEFAULT_LIMIT, false, "", null)));
+    }
+    @Test
+    void etagMatchesNegative() {
+        long version = LobbyVersion.current();
+        String etag = LobbyVersion.etag(version, GameListQuery.firstPage());
+        assertFalse(LobbyVersion.matches(null, etag));
+        assertFalse(LobbyVersion.matches("\"other\", W/\"more\"", etag));
+        assertFalse(LobbyVersion.matches(etag.substring(1), etag));
+        // A tag for another page or filter never stands in for this one.
+        assertFalse(LobbyVersion.matches(LobbyVersion.etag(version, new GameListQuery(100, 100, false, null, null)), etag));
+        assertFalse(LobbyVersion.matches(LobbyVersion.etag(version, new GameListQuery(0, 100, true, null, null)), etag));
+    }
+}
@@ -0,0 +1,31 @@
+package dataaccess;
+
+import records.UserData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MemoryUserDAOTest {
+    MemoryUserDAO userDAO = new MemoryUserDAO();
+    UserData user1 = new UserData("username1", "password1", "email1");
+
+    @AfterEach
+    void tearDown() {
+        userDAO.clearData();
+    }
+    @Test
+    void createUserPositive() throws DataAccessException {
+        userDAO.createUser(user1);
+        assertTrue(userDAO.getLogin(user1));
+    }
+    @Test
+    void createUserNegative() throws DataAccessException {
+        userDAO.createUser(user1);
+        // A registration that lost the race must not be told it succeeded.
+        UserData loser = new UserData("username1", "password2", "email2");
+        DataAccessException e = assertThrows(DataAccessException.class, ()->userDAO.createUser(loser));
+        assertEquals("Error: already taken", e.getMessage());
+        assertTrue(userDAO.getLogin(user1));
+    }
+}
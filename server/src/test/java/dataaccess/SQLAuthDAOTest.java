@@ -3,6 +3,7 @@ package dataaccess;
 import dataaccess.DataAccessException;
 import dataaccess.SQLAuthDAO;
 import org.junit.jupiter.api.AfterEach;
+import records.AuthData;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -73,6 +74,18 @@ public class SQLAuthDAOTest {
         assertEquals(username1, authDAO.getUsername(authToken1));
     }
     @Test
+    void getAuthPositive() throws DataAccessException {
+        authToken1 = authDAO.createAuth(username1).authToken();
+        assertEquals(new AuthData(username1, authToken1), authDAO.getAuth(authToken1));
+    }
+    @Test
+    void getAuthNegative() throws DataAccessException {
+        authToken1 = authDAO.createAuth(username1).authToken();
+        assertThrows(DataAccessException.class, ()->authDAO.getAuth("bad"));
+        authDAO.deleteAuth(authToken1);
+        assertThrows(DataAccessException.class, ()->authDAO.getAuth(authToken1));
+    }
+    @Test
     void getUsernameNegative() {
         authToken1 = authDAO.createAuth(username1).authToken();
         assertEquals(username1, authDAO.getUsername(authToken1));
@@ -1,9 +1,14 @@
 package dataaccess;
 
 import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
 import com.google.gson.Gson;
 import records.GameData;
 import records.AbbreviatedGameData;
+import records.GameListQuery;
+import records.GamePage;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 
@@ -74,6 +79,16 @@ public class SQLGameDAOTest {
         assertEquals(abbreviation, ((ArrayList<AbbreviatedGameData>) gameDAO.listGames()).getFirst());
     }
     @Test
+    void joinGameMissingNegative() {
+        int gameID1 = gameDAO.createGame(gameName1);
+        DataAccessException missing = assertThrows(DataAccessException.class,
+                ()->gameDAO.joinGame("username", ChessGame.TeamColor.BLACK, gameID1 + 1));
+        assertEquals("Error: bad request", missing.getMessage());
+        assertThrows(DataAccessException.class, ()->gameDAO.joinGame("username", null, gameID1));
+        AbbreviatedGameData abbreviation = new AbbreviatedGameData(gameID1, null, null, gameName1);
+        assertEquals(abbreviation, ((ArrayList<AbbreviatedGameData>) gameDAO.listGames()).getFirst());
+    }
+    @Test
     void listGamesPositive() {
         int gameID1 = gameDAO.createGame(gameName1);
         String gameName2 = "gameName2";
@@ -95,4 +110,72 @@ public class SQLGameDAOTest {
         fakeGames.add(fakeGame);
         assertNotEquals(fakeGames, gameDAO.listGames());
     }
+    @Test
+    void addMovePositive() throws InvalidMoveException, DataAccessException {
+        int gameID1 = gameDAO.createGame(gameName1);
+        ChessMove[] shuffle = {
+                new ChessMove(new ChessPosition(1, 7), new ChessPosition(3, 6), null),
+                new ChessMove(new ChessPosition(8, 7), new ChessPosition(6, 6), null),
+                new ChessMove(new ChessPosition(3, 6), new ChessPosition(1, 7), null),
+                new ChessMove(new ChessPosition(6, 6), new ChessPosition(8, 7), null)
+        };
+        // Long enough to pass a snapshot, so the game is rebuilt from it and the moves after.
+        for(int i = 0; i < 37; ++i) {
+            ChessMove move = shuffle[i % shuffle.length];
+            game1.makeMove(move);
+            gameDAO.addMove(gameID1, move, game1);
+        }
+        ChessGame stored = gameDAO.getGame(gameID1).chessGame();
+        assertEquals(game1.getBoard(), stored.getBoard());
+        assertEquals(game1.getTeamTurn(), stored.getTeamTurn());
+        assertEquals(game1.repetitionCount(), stored.repetitionCount());
+    }
+    @Test
+    void addMoveNegative() {
+        int gameID1 = gameDAO.createGame(gameName1);
+        ChessGame other = new ChessGame();
+        ChessMove move = new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null);
+        assertThrows(DataAccessException.class, ()->gameDAO.addMove(gameID1 + 1, move, other));
+        assertEquals(game1.getBoard(), gameDAO.getGame(gameID1).chessGame().getBoard());
+    }
+    @Test
+    void addMoveRaceNegative() throws InvalidMoveException, DataAccessException {
+        int gameID1 = gameDAO.createGame(gameName1);
+        ChessGame first = new ChessGame();
+        ChessMove firstMove = new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null);
+        first.makeMove(firstMove);
+        gameDAO.addMove(gameID1, firstMove, first);
+        // A second move made from the same starting position loses the race for ply 1.
+        ChessGame second = new ChessGame();
+        ChessMove secondMove = new ChessMove(new ChessPosition(2, 4), new ChessPosition(4, 4), null);
+        second.makeMove(secondMove);
+        assertThrows(DataAccessException.class, ()->gameDAO.addMove(gameID1, secondMove, second));
+        assertEquals(first.getBoard(), gameDAO.getGame(gameID1).chessGame().getBoard());
+    }
+    @Test
+    void listGamesPagePositive() throws DataAccessException {
+        for(int i = 1; i <= 5; ++i) {
+            gameDAO.createGame(i % 2 == 0 ? "even" + i : "odd" + i);
+        }
+        gameDAO.joinGame("player", ChessGame.TeamColor.WHITE, 1);
+        gameDAO.joinGame("other", ChessGame.TeamColor.BLACK, 1);
+        GamePage first = gameDAO.listGames(new GameListQuery(0, 2, false, null, null));
+        assertEquals(2, first.games().size());
+        assertEquals(Integer.valueOf(2), first.nextAfter());
+        GamePage last = gameDAO.listGames(new GameListQuery(first.nextAfter(), 3, false, null, null));
+        assertEquals(3, last.games().get(0).gameID());
+        assertEquals(3, last.games().size());
+        assertNull(last.nextAfter());
+        assertEquals(4, gameDAO.listGames(new GameListQuery(0, 10, true, null, null)).games().size());
+        assertEquals(2, gameDAO.listGames(new GameListQuery(0, 10, false, "even", null)).games().size());
+        assertEquals(1, gameDAO.listGames(new GameListQuery(0, 10, false, null, "player")).games().getFirst().gameID());
+    }
+    @Test
+    void listGamesPageNegative() {
+        gameDAO.createGame("100%");
+        gameDAO.createGame("1000");
+        assertEquals(1, gameDAO.listGames(new GameListQuery(0, 10, false, "100%", null)).games().size());
+        assertTrue(gameDAO.listGames(new GameListQuery(2, 10, false, null, null)).games().isEmpty());
+        assertTrue(gameDAO.listGames(new GameListQuery(0, 10, false, null, "nobody")).games().isEmpty());
+    }
 }
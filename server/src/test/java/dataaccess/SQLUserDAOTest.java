@@ -30,7 +30,7 @@ public class SQLUserDAOTest {
         String newPass = "newPass";
         String newEmail = "newEmail";
         UserData badUser = new UserData(username1, newPass, newEmail);
-        userDAO.createUser(badUser);
+        assertThrows(DataAccessException.class, ()->userDAO.createUser(badUser));
         assertThrows(DataAccessException.class, ()->userDAO.getLogin(badUser));
     }
     @Test
@@ -12,7 +12,7 @@ public class ClearAppServiceTest {
     private SQLUserDAO userDAO = new SQLUserDAO();
 
     @Test
-    void clearApplication() {
+    void clearApplication() throws DataAccessException {
         String gameName = "game";
         gameDAO.createGame(gameName);
 
@@ -48,7 +48,7 @@ public class UserServiceTest {
         assertTrue(authDAO.containsAuth(userAuth));
     }
     @Test
-    void loginNegative() {
+    void loginNegative() throws DataAccessException {
         UserData user1 = new UserData(username1, password1, email1);
         userDAO.createUser(user1);
         UserData user2 = new UserData(username2, password1, email1);
@@ -0,0 +1,180 @@
+package chess;
+
+/**
+ * Square indexing and precomputed attack tables for 64-bit board masks.
+ * <p>
+ * Squares are numbered 0-63 starting at row 1, column 1 (a1) and running
+ * across each row, so bit {@code (row - 1) * 8 + (column - 1)} of a mask
+ * stands for that position.
+ */
+final class Bitboards {
+    static final int NO_SQUARE = -1;
+    static final long RANK_1 = 0xFFL;
+    static final long RANK_8 = RANK_1 << 56;
+    // b1, d1, ... a2, c2, ...: the squares where row + column is odd.
+    static final long LIGHT_SQUARES = 0x55AA55AA55AA55AAL;
+
+    private static final int[][] DIRECTIONS = {
+            {1, 0}, {1, 1}, {0, 1}, {-1, 1}, {-1, 0}, {-1, -1}, {0, -1}, {1, -1}
+    };
+    private static final int[] ROOK_DIRECTIONS = {0, 2, 4, 6};
+    private static final int[] BISHOP_DIRECTIONS = {1, 3, 5, 7};
+
+    private static final long[][] RAYS = new long[8][64];
+    private static final long[] KNIGHT_ATTACKS = new long[64];
+    private static final long[] KING_ATTACKS = new long[64];
+    private static final long[][] PAWN_ATTACKS = new long[2][64];
+    private static final long[][] BETWEEN = new long[64][64];
+    private static final long[][] LINE = new long[64][64];
+
+    static {
+        int[][] knightJumps = {{2, -1}, {2, 1}, {-2, -1}, {-2, 1}, {1, -2}, {1, 2}, {-1, -2}, {-1, 2}};
+        for(int square = 0; square < 64; ++square) {
+            int row = row(square);
+            int col = column(square);
+            for(int dir = 0; dir < 8; ++dir) {
+                long ray = 0L;
+                for(int i = 1; onBoard(row + DIRECTIONS[dir][0] * i, col + DIRECTIONS[dir][1] * i); ++i) {
+                    ray |= bit(square(row + DIRECTIONS[dir][0] * i, col + DIRECTIONS[dir][1] * i));
+                }
+                RAYS[dir][square] = ray;
+                KING_ATTACKS[square] |= maskOf(row + DIRECTIONS[dir][0], col + DIRECTIONS[dir][1]);
+            }
+            for(int[] jump:knightJumps) {
+                KNIGHT_ATTACKS[square] |= maskOf(row + jump[0], col + jump[1]);
+            }
+            PAWN_ATTACKS[ChessGame.TeamColor.WHITE.ordinal()][square] = maskOf(row + 1, col - 1) | maskOf(row + 1, col + 1);
+            PAWN_ATTACKS[ChessGame.TeamColor.BLACK.ordinal()][square] = maskOf(row - 1, col - 1) | maskOf(row - 1, col + 1);
+        }
+        for(int square = 0; square < 64; ++square) {
+            for(int dir = 0; dir < 8; ++dir) {
+                long line = RAYS[dir][square] | RAYS[(dir + 4) % 8][square] | bit(square);
+                long between = 0L;
+                int row = row(square) + DIRECTIONS[dir][0];
+                int col = column(square) + DIRECTIONS[dir][1];
+                for(; onBoard(row, col); row += DIRECTIONS[dir][0], col += DIRECTIONS[dir][1]) {
+                    int other = square(row, col);
+                    BETWEEN[square][other] = between;
+                    LINE[square][other] = line;
+                    between |= bit(other);
+                }
+            }
+        }
+    }
+
+    private Bitboards() {}
+
+    static int square(int row, int col) {
+        return (row - 1) * 8 + (col - 1);
+    }
+
+    static int square(ChessPosition position) {
+        return square(position.getRow(), position.getColumn());
+    }
+
+    static int row(int square) {
+        return (square >>> 3) + 1;
+    }
+
+    static int column(int square) {
+        return (square & 7) + 1;
+    }
+
+    static ChessPosition position(int square) {
+        return ChessPosition.of(row(square), column(square));
+    }
+
+    static long bit(int square) {
+        return 1L << square;
+    }
+
+    static boolean onBoard(int row, int col) {
+        return row >= 1 && row <= 8 && col >= 1 && col <= 8;
+    }
+
+    private static long maskOf(int row, int col) {
+        return onBoard(row, col) ? bit(square(row, col)) : 0L;
+    }
+
+    /**
+     * @return the lowest square set in the mask; the mask must not be empty
+     */
+    static int first(long mask) {
+        return Long.numberOfTrailingZeros(mask);
+    }
+
+    /**
+     * @return the squares strictly between two squares on a shared row, column
+     * or diagonal, or an empty mask if they do not line up
+     */
+    static long between(int from, int to) {
+        return BETWEEN[from][to];
+    }
+
+    /**
+     * @return the whole row, column or diagonal through both squares, or an
+     * empty mask if they do not line up
+     */
+    static long line(int from, int to) {
+        return LINE[from][to];
+    }
+
+    static long knightAttacks(int square) {
+        return KNIGHT_ATTACKS[square];
+    }
+
+    static long kingAttacks(int square) {
+        return KING_ATTACKS[square];
+    }
+
+    static long pawnAttacks(ChessGame.TeamColor color, int square) {
+        return PAWN_ATTACKS[color.ordinal()][square];
+    }
+
+    static long rookAttacks(int square, long occupied) {
+        long attacks = 0L;
+        for(int dir:ROOK_DIRECTIONS) {
+            attacks |= rayAttacks(dir, square, occupied);
+        }
+        return attacks;
+    }
+
+    static long bishopAttacks(int square, long occupied) {
+        long attacks = 0L;
+        for(int dir:BISHOP_DIRECTIONS) {
+            attacks |= rayAttacks(dir, square, occupied);
+        }
+        return attacks;
+    }
+
+    static long queenAttacks(int square, long occupied) {
+        return rookAttacks(square, occupied) | bishopAttacks(square, occupied);
+    }
+
+    /**
+     * Squares a non-pawn piece attacks from the given square. Pawns attack
+     * differently than they move, so use {@link #pawnAttacks} for them.
+     */
+    static long attacks(ChessPiece.PieceType type, int square, long occupied) {
+        return switch (type) {
+            case KING -> KING_ATTACKS[square];
+            case QUEEN -> queenAttacks(square, occupied);
+            case BISHOP -> bishopAttacks(square, occupied);
+            case KNIGHT -> KNIGHT_ATTACKS[square];
+            case ROOK -> rookAttacks(square, occupied);
+            case PAWN -> throw new IllegalArgumentException("pawn attacks depend on color");
+        };
+    }
+
+    private static long rayAttacks(int dir, int square, long occupied) {
+        long ray = RAYS[dir][square];
+        long blockers = ray & occupied;
+        if(blockers != 0) {
+            // North, north-east, east and north-west rays run toward higher squares.
+            boolean ascending = dir <= 2 || dir == 7;
+            int blocker = ascending ? Long.numberOfTrailingZeros(blockers) : 63 - Long.numberOfLeadingZeros(blockers);
+            ray ^= RAYS[dir][blocker];
+        }
+        return ray;
+    }
+}
@@ -0,0 +1,70 @@
+package chess;
+
+import java.util.Arrays;
+
+/**
+ * Bit flags recording which castles each team may still make. A right is
+ * lost for good once its king or rook moves or the rook is captured.
+ */
+public final class CastlingRights {
+    public static final int NONE = 0;
+    public static final int WHITE_KINGSIDE = 1;
+    public static final int WHITE_QUEENSIDE = 1 << 1;
+    public static final int BLACK_KINGSIDE = 1 << 2;
+    public static final int BLACK_QUEENSIDE = 1 << 3;
+    public static final int ALL = WHITE_KINGSIDE | WHITE_QUEENSIDE | BLACK_KINGSIDE | BLACK_QUEENSIDE;
+
+    // Rights kept when a piece moves from or to each square.
+    private static final int[] KEPT = new int[64];
+
+    static {
+        Arrays.fill(KEPT, ALL);
+        KEPT[Bitboards.square(1, 1)] = ALL & ~WHITE_QUEENSIDE;
+        KEPT[Bitboards.square(1, 5)] = ALL & ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+        KEPT[Bitboards.square(1, 8)] = ALL & ~WHITE_KINGSIDE;
+        KEPT[Bitboards.square(8, 1)] = ALL & ~BLACK_QUEENSIDE;
+        KEPT[Bitboards.square(8, 5)] = ALL & ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+        KEPT[Bitboards.square(8, 8)] = ALL & ~BLACK_KINGSIDE;
+    }
+
+    private CastlingRights() {}
+
+    public static int kingside(ChessGame.TeamColor color) {
+        return color == ChessGame.TeamColor.WHITE ? WHITE_KINGSIDE : BLACK_KINGSIDE;
+    }
+
+    public static int queenside(ChessGame.TeamColor color) {
+        return color == ChessGame.TeamColor.WHITE ? WHITE_QUEENSIDE : BLACK_QUEENSIDE;
+    }
+
+    /**
+     * @return the rights left after a move between two squares
+     */
+    static int afterMove(int rights, int from, int to) {
+        return rights & KEPT[from] & KEPT[to];
+    }
+
+    /**
+     * Works out the rights a board allows from where its kings and rooks
+     * stand, for boards set up without a move history
+     *
+     * @return a right for every king and rook still on its starting square
+     */
+    public static int fromBoard(ChessBoard board) {
+        int rights = NONE;
+        for(ChessGame.TeamColor color:ChessGame.TeamColor.values()) {
+            int row = color == ChessGame.TeamColor.WHITE ? 1 : 8;
+            if(!ChessPiece.of(color, ChessPiece.PieceType.KING).equals(board.pieceAt(Bitboards.square(row, 5)))) {
+                continue;
+            }
+            ChessPiece rook = ChessPiece.of(color, ChessPiece.PieceType.ROOK);
+            if(rook.equals(board.pieceAt(Bitboards.square(row, 8)))) {
+                rights |= kingside(color);
+            }
+            if(rook.equals(board.pieceAt(Bitboards.square(row, 1)))) {
+                rights |= queenside(color);
+            }
+        }
+        return rights;
+    }
+}
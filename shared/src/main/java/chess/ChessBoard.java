@@ -9,11 +9,30 @@ import java.util.Arrays;
  */
 public class ChessBoard {
     private ChessPiece[][] board = new ChessPiece[8][8];
+    // Bitboards mirroring the board array, indexed by ChessPiece.index() and TeamColor.ordinal().
+    // They are rebuilt lazily, so boards loaded by Gson fill them in on first use.
+    private transient long[] pieceBitboards;
+    private transient long[] colorBitboards;
+    private transient int[] kingSquares;
+    private transient long positionKey;
+    private transient int modCount;
 
     public ChessBoard() {
 
     }
 
+    /**
+     * Creates a board from the piece placement field of a FEN string, such as
+     * {@code rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR}. Any fields after the
+     * placement are ignored; use {@link ChessGame#fromFen} to read them.
+     *
+     * @param fen the FEN text
+     * @throws IllegalArgumentException if the placement is malformed
+     */
+    public ChessBoard(CharSequence fen) {
+        new Fen(fen).readPlacement(this);
+    }
+
     /**
      * Adds a chess piece to the chessboard
      *
@@ -21,7 +40,7 @@ public class ChessBoard {
      * @param piece    the piece to add
      */
     public void addPiece(ChessPosition position, ChessPiece piece) {
-        board[position.getRow() - 1][position.getColumn() - 1] = piece;
+        setSquare(Bitboards.square(position), piece);
     }
 
     /**
@@ -35,59 +54,297 @@ public class ChessBoard {
         return board[position.getRow() - 1][position.getColumn() - 1];
     }
 
+    /**
+     * Plays a move in place without checking that it is legal. Pawns moving
+     * with a promotion piece are replaced by that piece, a king moving two
+     * columns castles and brings its rook across, and a pawn moving
+     * diagonally onto an empty square captures en passant.
+     *
+     * @param move the move to play; a piece must stand on its start position
+     * @return the record unmakeMove uses to restore this board
+     */
+    public MoveUndo makeMove(ChessMove move) {
+        int start = Bitboards.square(move.getStartPosition());
+        int end = Bitboards.square(move.getEndPosition());
+        ChessPiece movedPiece = pieceAt(start);
+        ChessPiece placedPiece = movedPiece;
+        if(move.getPromotionPiece() != null) {
+            placedPiece = ChessPiece.of(movedPiece.getTeamColor(), move.getPromotionPiece());
+        }
+        int capturedSquare = end;
+        if(movedPiece.getPieceType() == ChessPiece.PieceType.PAWN
+                && Bitboards.column(start) != Bitboards.column(end) && pieceAt(end) == null) {
+            capturedSquare = Bitboards.square(Bitboards.row(start), Bitboards.column(end));
+        }
+        ChessPiece capturedPiece = pieceAt(capturedSquare);
+        if(capturedSquare != end) {
+            setSquare(capturedSquare, null);
+        }
+        setSquare(start, null);
+        setSquare(end, placedPiece);
+        if(isCastle(movedPiece, start, end)) {
+            moveRook(start, end, false);
+        }
+        return new MoveUndo(move, movedPiece, capturedPiece, Bitboards.position(capturedSquare));
+    }
+
+    /**
+     * Takes back the most recent move played with makeMove
+     *
+     * @param undo the record makeMove returned for that move
+     */
+    public void unmakeMove(MoveUndo undo) {
+        int start = Bitboards.square(undo.move().getStartPosition());
+        int end = Bitboards.square(undo.move().getEndPosition());
+        if(isCastle(undo.movedPiece(), start, end)) {
+            moveRook(start, end, true);
+        }
+        setSquare(end, null);
+        setSquare(Bitboards.square(undo.capturedPosition()), undo.capturedPiece());
+        setSquare(start, undo.movedPiece());
+    }
+
+    private static boolean isCastle(ChessPiece piece, int start, int end) {
+        return piece.getPieceType() == ChessPiece.PieceType.KING && Math.abs(end - start) == 2;
+    }
+
+    private void moveRook(int kingStart, int kingEnd, boolean back) {
+        int corner = kingEnd > kingStart ? kingStart + 3 : kingStart - 4;
+        int beside = (kingStart + kingEnd) / 2;
+        int from = back ? beside : corner;
+        int to = back ? corner : beside;
+        setSquare(to, pieceAt(from));
+        setSquare(from, null);
+    }
+
+    /**
+     * @return a counter that changes whenever a piece is placed or removed,
+     * so cached results about this board can tell when they are stale
+     */
+    int modCount() {
+        return modCount;
+    }
+
+    ChessPiece pieceAt(int square) {
+        return board[square >>> 3][square & 7];
+    }
+
+    void setSquare(int square, ChessPiece piece) {
+        ChessPiece previous = board[square >>> 3][square & 7];
+        board[square >>> 3][square & 7] = piece;
+        ++modCount;
+        if(pieceBitboards == null) {
+            return;
+        }
+        long bit = Bitboards.bit(square);
+        if(previous != null) {
+            positionKey ^= Zobrist.piece(previous, square);
+            pieceBitboards[previous.index()] &= ~bit;
+            colorBitboards[previous.getTeamColor().ordinal()] &= ~bit;
+            if(previous.getPieceType() == ChessPiece.PieceType.KING) {
+                trackKing(previous.getTeamColor());
+            }
+        }
+        if(piece != null) {
+            positionKey ^= Zobrist.piece(piece, square);
+            pieceBitboards[piece.index()] |= bit;
+            colorBitboards[piece.getTeamColor().ordinal()] |= bit;
+            if(piece.getPieceType() == ChessPiece.PieceType.KING) {
+                kingSquares[piece.getTeamColor().ordinal()] = square;
+            }
+        }
+    }
+
+    private void trackKing(ChessGame.TeamColor color) {
+        long kings = pieceBitboards[ChessPiece.index(color, ChessPiece.PieceType.KING)];
+        kingSquares[color.ordinal()] = kings == 0 ? Bitboards.NO_SQUARE : Bitboards.first(kings);
+    }
+
+    /**
+     * @return where the given team's king stands, or null if it has none
+     */
+    public ChessPosition getKingPosition(ChessGame.TeamColor color) {
+        int square = kingSquare(color);
+        return square == Bitboards.NO_SQUARE ? null : Bitboards.position(square);
+    }
+
+    int kingSquare(ChessGame.TeamColor color) {
+        indexBoard();
+        return kingSquares[color.ordinal()];
+    }
+
+    /**
+     * Gets a 64-bit Zobrist hash of where the pieces stand. Equal boards
+     * always share a key and different boards almost never do. The key is
+     * updated as pieces are placed and removed rather than recomputed.
+     *
+     * @return the key for the current placement of pieces
+     */
+    public long positionKey() {
+        indexBoard();
+        return positionKey;
+    }
+
+    /**
+     * Determines if any piece of a team attacks a position
+     *
+     * @param position the position to look at
+     * @param attacker the team that may be attacking it
+     * @return True if a piece of that team could capture on the position
+     */
+    public boolean isSquareAttacked(ChessPosition position, ChessGame.TeamColor attacker) {
+        return isAttacked(Bitboards.square(position), attacker);
+    }
+
+    /**
+     * Looks outward from the square for each kind of attacker in turn, stopping
+     * at the first one found
+     */
+    boolean isAttacked(int square, ChessGame.TeamColor attacker) {
+        indexBoard();
+        int offset = ChessPiece.index(attacker, ChessPiece.PieceType.KING);
+        if((Bitboards.knightAttacks(square) & pieceBitboards[offset + ChessPiece.PieceType.KNIGHT.ordinal()]) != 0
+                || (Bitboards.pawnAttacks(attacker.opponent(), square)
+                        & pieceBitboards[offset + ChessPiece.PieceType.PAWN.ordinal()]) != 0
+                || (Bitboards.kingAttacks(square) & pieceBitboards[offset]) != 0) {
+            return true;
+        }
+        long occupied = colorBitboards[0] | colorBitboards[1];
+        long queens = pieceBitboards[offset + ChessPiece.PieceType.QUEEN.ordinal()];
+        long straight = pieceBitboards[offset + ChessPiece.PieceType.ROOK.ordinal()] | queens;
+        if(straight != 0 && (Bitboards.rookAttacks(square, occupied) & straight) != 0) {
+            return true;
+        }
+        long diagonal = pieceBitboards[offset + ChessPiece.PieceType.BISHOP.ordinal()] | queens;
+        return diagonal != 0 && (Bitboards.bishopAttacks(square, occupied) & diagonal) != 0;
+    }
+
+    /**
+     * @return mask of the squares holding the given piece
+     */
+    public long getBitboard(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        indexBoard();
+        return pieceBitboards[ChessPiece.index(color, type)];
+    }
+
+    /**
+     * @return mask of the squares holding pieces of the given team
+     */
+    public long getOccupancy(ChessGame.TeamColor color) {
+        indexBoard();
+        return colorBitboards[color.ordinal()];
+    }
+
+    /**
+     * @return mask of every occupied square
+     */
+    public long getOccupancy() {
+        indexBoard();
+        return colorBitboards[0] | colorBitboards[1];
+    }
+
+    /**
+     * Determines if neither team has enough pieces left to checkmate: only
+     * kings, kings and a single knight or bishop, or kings and bishops that
+     * all stand on squares of the same color
+     *
+     * @return True if no sequence of moves can end in checkmate
+     */
+    public boolean hasInsufficientMaterial() {
+        indexBoard();
+        long heavy = 0L;
+        long knights = 0L;
+        long bishops = 0L;
+        for(ChessGame.TeamColor color:ChessGame.TeamColor.values()) {
+            int offset = ChessPiece.index(color, ChessPiece.PieceType.KING);
+            heavy |= pieceBitboards[offset + ChessPiece.PieceType.PAWN.ordinal()]
+                    | pieceBitboards[offset + ChessPiece.PieceType.ROOK.ordinal()]
+                    | pieceBitboards[offset + ChessPiece.PieceType.QUEEN.ordinal()];
+            knights |= pieceBitboards[offset + ChessPiece.PieceType.KNIGHT.ordinal()];
+            bishops |= pieceBitboards[offset + ChessPiece.PieceType.BISHOP.ordinal()];
+        }
+        if(heavy != 0) {
+            return false;
+        }
+        if(Long.bitCount(knights | bishops) <= 1) {
+            return true;
+        }
+        return knights == 0 && ((bishops & Bitboards.LIGHT_SQUARES) == 0 || (bishops & ~Bitboards.LIGHT_SQUARES) == 0);
+    }
+
+    /**
+     * Finds the pieces of one team that attack a square
+     *
+     * @param occupied the squares sliding pieces are blocked by
+     */
+    long attackersTo(int square, ChessGame.TeamColor attacker, long occupied) {
+        indexBoard();
+        int offset = ChessPiece.index(attacker, ChessPiece.PieceType.KING);
+        long queens = pieceBitboards[offset + ChessPiece.PieceType.QUEEN.ordinal()];
+        return (Bitboards.pawnAttacks(attacker.opponent(), square)
+                        & pieceBitboards[offset + ChessPiece.PieceType.PAWN.ordinal()])
+                | (Bitboards.knightAttacks(square) & pieceBitboards[offset + ChessPiece.PieceType.KNIGHT.ordinal()])
+                | (Bitboards.kingAttacks(square) & pieceBitboards[offset])
+                | (Bitboards.bishopAttacks(square, occupied)
+                        & (pieceBitboards[offset + ChessPiece.PieceType.BISHOP.ordinal()] | queens))
+                | (Bitboards.rookAttacks(square, occupied)
+                        & (pieceBitboards[offset + ChessPiece.PieceType.ROOK.ordinal()] | queens));
+    }
+
+    private void indexBoard() {
+        if(pieceBitboards != null) {
+            return;
+        }
+        long[] pieces = new long[12];
+        long[] colors = new long[2];
+        long key = 0L;
+        for(int square = 0; square < 64; ++square) {
+            ChessPiece piece = pieceAt(square);
+            if(piece != null) {
+                pieces[piece.index()] |= Bitboards.bit(square);
+                colors[piece.getTeamColor().ordinal()] |= Bitboards.bit(square);
+                key ^= Zobrist.piece(piece, square);
+            }
+        }
+        positionKey = key;
+        colorBitboards = colors;
+        pieceBitboards = pieces;
+        kingSquares = new int[2];
+        trackKing(ChessGame.TeamColor.WHITE);
+        trackKing(ChessGame.TeamColor.BLACK);
+    }
+
     /**
      * Sets the board to the default starting board
      * (How the game of chess normally starts)
      */
     public void resetBoard() {
-        for(int i = 0; i < 8; ++i) {
+        ChessPiece.PieceType[] backRow = {
+                ChessPiece.PieceType.ROOK, ChessPiece.PieceType.KNIGHT, ChessPiece.PieceType.BISHOP,
+                ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.KING, ChessPiece.PieceType.BISHOP,
+                ChessPiece.PieceType.KNIGHT, ChessPiece.PieceType.ROOK
+        };
+        for(int i = 2; i < 6; ++i) {
             for(int j = 0; j < 8; ++j) {
                 board[i][j] = null;
             }
         }
-        for(int i = 0; i < 8; ++i) {
-            ChessPiece blackPawn = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
-            ChessPiece whitePawn = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
-            board[6][i] = blackPawn;
-            board[1][i] = whitePawn;
-        }
-        ChessPiece blackRook1 = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK);
-        ChessPiece blackRook2 = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK);
-        ChessPiece whiteRook1 = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK);
-        ChessPiece whiteRook2 = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK);
-        board[7][0] = blackRook1;
-        board[7][7] = blackRook2;
-        board[0][0] = whiteRook1;
-        board[0][7] = whiteRook2;
-
-        ChessPiece blackKnight1 = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT);
-        ChessPiece blackKnight2 = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT);
-        ChessPiece whiteKnight1 = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT);
-        ChessPiece whiteKnight2 = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT);
-        board[7][1] = blackKnight1;
-        board[7][6] = blackKnight2;
-        board[0][1] = whiteKnight1;
-        board[0][6] = whiteKnight2;
-
-        ChessPiece blackBishop1 = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP);
-        ChessPiece blackBishop2 = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP);
-        ChessPiece whiteBishop1 = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP);
-        ChessPiece whiteBishop2 = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP);
-        board[7][2] = blackBishop1;
-        board[7][5] = blackBishop2;
-        board[0][2] = whiteBishop1;
-        board[0][5] = whiteBishop2;
-
-        ChessPiece blackQueen = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN);
-        ChessPiece whiteQueen = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN);
-        board[7][3] = blackQueen;
-        board[0][3] = whiteQueen;
-
-        ChessPiece blackKing = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING);
-        ChessPiece whiteKing = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING);
-        board[7][4] = blackKing;
-        board[0][4] = whiteKing;
+        for(int j = 0; j < 8; ++j) {
+            board[0][j] = ChessPiece.of(ChessGame.TeamColor.WHITE, backRow[j]);
+            board[1][j] = ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
+            board[6][j] = ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
+            board[7][j] = ChessPiece.of(ChessGame.TeamColor.BLACK, backRow[j]);
+        }
+        pieceBitboards = null;
+        colorBitboards = null;
+        kingSquares = null;
+        ++modCount;
     }
+
+    /**
+     * Exposes the backing array for drawing and serialization. Writes to it
+     * skip the bitboards, so pieces should only be placed through addPiece.
+     */
     public ChessPiece[][] getBoard() {
         return board;
     }
@@ -106,7 +363,8 @@ public class ChessBoard {
 
     @Override
     public int hashCode() {
-        return Arrays.hashCode(board);
+        long key = positionKey();
+        return (int) (key ^ (key >>> 32));
     }
 
     @Override
@@ -1,5 +1,7 @@
 package chess;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
 
@@ -12,7 +14,20 @@ import java.util.HashSet;
 public class ChessGame {
     private ChessBoard board = new ChessBoard();
     private TeamColor teamTurn;
-    private boolean checkmateOccurred = false;
+    private int castlingRights = CastlingRights.ALL;
+    // Where a pawn can capture en passant this turn. It is only set when an enemy pawn is in
+    // place to make that capture, so positions that differ only by an unusable target match.
+    private int enPassantSquare = Bitboards.NO_SQUARE;
+    // Keys of the positions since the last capture or pawn move, oldest first. Earlier
+    // positions can never come back, so they are dropped.
+    private long[] keyHistory;
+    private int historySize;
+    private int halfmoveClock;
+    private int fullmoveNumber = 1;
+    private transient GameStatus status;
+    private transient ChessBoard statusBoard;
+    private transient int statusModCount;
+    private final transient MoveList moveBuffer = new MoveList();
 
     public ChessGame() {
         board.resetBoard();
@@ -33,6 +48,7 @@ public class ChessGame {
      */
     public void setTeamTurn(TeamColor team) {
         teamTurn = team;
+        status = null;
     }
 
     /**
@@ -40,7 +56,14 @@ public class ChessGame {
      */
     public enum TeamColor {
         WHITE,
-        BLACK
+        BLACK;
+
+        /**
+         * @return the team playing against this one
+         */
+        public TeamColor opponent() {
+            return this == WHITE ? BLACK : WHITE;
+        }
     }
 
     /**
@@ -51,41 +74,49 @@ public class ChessGame {
      * startPosition
      */
     public Collection<ChessMove> validMoves(ChessPosition startPosition) {
-        if(board.getPiece(startPosition) == null) {
+        ChessPiece piece = board.getPiece(startPosition);
+        if(piece == null) {
             return null;
         }
+        moveBuffer.clear();
+        long startMask = Bitboards.bit(Bitboards.square(startPosition));
+        int enPassant = piece.getTeamColor() == teamTurn ? enPassantSquare : Bitboards.NO_SQUARE;
+        MoveGenerator.legalMoves(board, piece.getTeamColor(), startMask, castlingRights, enPassant, moveBuffer);
+        return moveBuffer.toChessMoves(new HashSet<>());
+    }
 
-        HashSet<ChessMove> possibleMoves
-                = (HashSet<ChessMove>) board.getPiece(startPosition).pieceMoves(board, startPosition);
-        HashSet<ChessMove> returnableMoves = new HashSet<>();
-        for(ChessMove move:possibleMoves) {
-            ChessBoard boardCopy = boardCloner();
-            ChessPosition possibleEnd = move.getEndPosition();
-            ChessPiece movingPiece = boardCopy.getPiece(startPosition);
-            board.addPiece(possibleEnd, movingPiece);
-            board.addPiece(startPosition, null);
-            TeamColor checkingColor = board.getPiece(possibleEnd).getTeamColor();
-            if(!isInCheck(checkingColor)) {
-                returnableMoves.add(move);
-            }
-            board = boardCopy;
-        }
-        return returnableMoves;
-    }
-    private ChessBoard boardCloner() {
-        ChessBoard copyBoard = new ChessBoard();
-        for(int i = 1; i <= 8; ++i) {
-            for(int j = 1; j <= 8; ++j) {
-                ChessPosition copyPosition = new ChessPosition(i, j);
-                if(board.getPiece(copyPosition) != null) {
-                    TeamColor copyColor = board.getPiece(copyPosition).getTeamColor();
-                    ChessPiece.PieceType copyType = board.getPiece(copyPosition).getPieceType();
-                    ChessPiece copyPiece = new ChessPiece(copyColor, copyType);
-                    copyBoard.addPiece(copyPosition, copyPiece);
-                }
-            }
-        }
-        return copyBoard;
+    /**
+     * Gets every legal move for the team whose turn it is
+     *
+     * @return the moves, or an empty collection if that team cannot move
+     */
+    public Collection<ChessMove> legalMoves() {
+        moveBuffer.clear();
+        MoveGenerator.legalMoves(board, teamTurn, -1L, castlingRights, enPassantSquare, moveBuffer);
+        return moveBuffer.toChessMoves(new ArrayList<>(moveBuffer.size()));
+    }
+
+    /**
+     * Fills a buffer with every legal move for the team whose turn it is,
+     * packed with {@link Move}
+     *
+     * @param moves the buffer to fill; it is cleared first
+     */
+    public void legalMoves(MoveList moves) {
+        moves.clear();
+        MoveGenerator.legalMoves(board, teamTurn, -1L, castlingRights, enPassantSquare, moves);
+    }
+
+    /**
+     * Gets a 64-bit Zobrist hash of the position, made of the board's key,
+     * which team is to move, the castling rights and any en passant target.
+     * Games reaching the same position share a key.
+     *
+     * @return the key for the current position
+     */
+    public long positionKey() {
+        return board.positionKey() ^ Zobrist.sideToMove(teamTurn) ^ Zobrist.castling(castlingRights)
+                ^ Zobrist.enPassant(enPassantSquare);
     }
 
     /**
@@ -96,41 +127,145 @@ public class ChessGame {
      */
     public void makeMove(ChessMove move) throws InvalidMoveException {
         ChessPosition start = move.getStartPosition();
+        ChessPosition end = move.getEndPosition();
+        if(!Bitboards.onBoard(start.getRow(), start.getColumn()) || !Bitboards.onBoard(end.getRow(), end.getColumn())) {
+            throw new InvalidMoveException("invalid move");
+        }
         if(board.getPiece(start) == null) {
             throw new InvalidMoveException("invalid move");
         }
         if(board.getPiece(start).getTeamColor() != teamTurn) {
             throw new InvalidMoveException("Wait your turn\n");
         }
-        HashSet<ChessMove> validMoves = (HashSet<ChessMove>) validMoves(start);
-        if(!validMoves.isEmpty()) {
-            if(validMoves.contains(move)) {
-                ChessPiece movePiece = board.getPiece(start);
-                ChessPosition end = move.getEndPosition();
-                if(move.getPromotionPiece() == null) {
-                    board.addPiece(end, movePiece);
-                    board.addPiece(start, null);
-                }
-                if(move.getPromotionPiece() != null) {
-                    ChessPiece.PieceType promotion = move.getPromotionPiece();
-                    ChessPiece promotedPiece = new ChessPiece(movePiece.getTeamColor(), promotion);
-                    board.addPiece(end, promotedPiece);
-                    board.addPiece(start, null);
-                }
-                if(movePiece.getTeamColor() == TeamColor.WHITE) {
-                    setTeamTurn(TeamColor.BLACK);
-                }
-                if(movePiece.getTeamColor() == TeamColor.BLACK) {
-                    setTeamTurn(TeamColor.WHITE);
-                }
-            }
-            if(!validMoves.contains(move)) {
-                throw new InvalidMoveException("invalid move");
+        moveBuffer.clear();
+        MoveGenerator.legalMoves(board, teamTurn, Bitboards.bit(Bitboards.square(start)), castlingRights,
+                enPassantSquare, moveBuffer);
+        int packed = Move.fromChessMove(board, move);
+        if(!moveBuffer.contains(packed)) {
+            throw new InvalidMoveException("invalid move");
+        }
+        boolean irreversible = Move.isCapture(packed)
+                || board.getPiece(start).getPieceType() == ChessPiece.PieceType.PAWN;
+        long key = positionKey();
+        if(teamTurn == TeamColor.BLACK) {
+            ++fullmoveNumber;
+        }
+        applyMove(move, packed);
+        recordPosition(key, irreversible);
+    }
+
+    private GameUndo applyMove(ChessMove move, int packed) {
+        GameUndo undo = new GameUndo(board.makeMove(move), castlingRights, enPassantSquare);
+        int from = Move.from(packed);
+        int to = Move.to(packed);
+        castlingRights = CastlingRights.afterMove(castlingRights, from, to);
+        enPassantSquare = Bitboards.NO_SQUARE;
+        if((packed & Move.DOUBLE_PUSH) != 0) {
+            int passed = (from + to) / 2;
+            long enemyPawns = board.getBitboard(teamTurn.opponent(), ChessPiece.PieceType.PAWN);
+            if((Bitboards.pawnAttacks(teamTurn, passed) & enemyPawns) != 0) {
+                enPassantSquare = passed;
             }
         }
-        if(validMoves.isEmpty()) {
-            throw new InvalidMoveException("invalid move");
+        setTeamTurn(teamTurn.opponent());
+        return undo;
+    }
+
+    private void recordPosition(long key, boolean irreversible) {
+        if(irreversible) {
+            halfmoveClock = 0;
+            historySize = 0;
+            return;
+        }
+        ++halfmoveClock;
+        if(keyHistory == null) {
+            keyHistory = new long[16];
+        } else if(historySize == keyHistory.length) {
+            keyHistory = Arrays.copyOf(keyHistory, Math.max(16, historySize * 2));
+        }
+        keyHistory[historySize++] = key;
+    }
+
+    /**
+     * @return the number of moves since the last capture or pawn move
+     */
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    /**
+     * @return the number of the current move, starting at 1 and going up
+     * after each of black's moves
+     */
+    public int getFullmoveNumber() {
+        return fullmoveNumber;
+    }
+
+    /**
+     * @return the keys of the positions since the last capture or pawn move,
+     * oldest first, for saving with the game
+     */
+    long[] keyHistory() {
+        return keyHistory == null ? new long[0] : Arrays.copyOf(keyHistory, historySize);
+    }
+
+    void restoreKeyHistory(long[] keys) {
+        keyHistory = keys.clone();
+        historySize = keys.length;
+        status = null;
+    }
+
+    /**
+     * Counts how many times the current position has occurred, this time
+     * included. Only positions with the same team to move since the last
+     * capture or pawn move can match, so only those keys are compared.
+     *
+     * @return the number of occurrences, at least 1
+     */
+    public int repetitionCount() {
+        long key = positionKey();
+        int count = 1;
+        for(int i = historySize - 2; i >= 0; i -= 2) {
+            if(keyHistory[i] == key) {
+                ++count;
+            }
         }
+        return count;
+    }
+
+    /**
+     * Plays a packed move for the team whose turn it is without checking that
+     * it is legal, for searches that walk through moves from legalMoves
+     *
+     * @return the record takeBack uses to restore the game
+     */
+    GameUndo playMove(int move) {
+        return applyMove(Move.toChessMove(move), move);
+    }
+
+    /**
+     * Takes back the most recent move played with playMove
+     */
+    void takeBack(GameUndo undo) {
+        board.unmakeMove(undo.board());
+        castlingRights = undo.castlingRights();
+        enPassantSquare = undo.enPassantSquare();
+        setTeamTurn(teamTurn.opponent());
+    }
+
+    /**
+     * @return the castles still available, as {@link CastlingRights} flags
+     */
+    public int getCastlingRights() {
+        return castlingRights;
+    }
+
+    /**
+     * @return the square a pawn of the team to move can capture onto en
+     * passant, or null if there is none
+     */
+    public ChessPosition getEnPassantPosition() {
+        return enPassantSquare == Bitboards.NO_SQUARE ? null : Bitboards.position(enPassantSquare);
     }
 
     /**
@@ -140,63 +275,62 @@ public class ChessGame {
      * @return True if the specified team is in check
      */
     public boolean isInCheck(TeamColor teamColor) {
-        int kingRow = 0;
-        int kingCol = 0;
-        for(int i = 1; i <= 8; ++i) {
-            kingCol = kingColCalculator(i, teamColor);
-            if(kingCol > 0) {
-                kingRow = i;
-                break;
-            }
+        int king = board.kingSquare(teamColor);
+        return king != Bitboards.NO_SQUARE && board.isAttacked(king, teamColor.opponent());
+    }
+
+    /**
+     * Works out check, checkmate, stalemate and draws for the team whose turn
+     * it is with a single legal move generation. The result is reused until
+     * the board or the turn changes.
+     *
+     * @return the status of the team to move
+     */
+    public GameStatus evaluateStatus() {
+        if(status != null && statusBoard == board && statusModCount == board.modCount()
+                && status.teamToMove() == teamTurn) {
+            return status;
         }
-        ChessPosition kingPos = new ChessPosition(kingRow, kingCol);
-        boolean check = false;
-        for(int i = 1; i <= 8; ++i) {
-            for(int j = 1; j <= 8; ++j) {
-                ChessPosition checkPos = new ChessPosition(i, j);
-                if(board.getPiece(checkPos) != null) {
-                    if(board.getPiece(checkPos).getTeamColor() != teamColor) {
-                        HashSet<ChessMove> moves = (HashSet<ChessMove>) board.getPiece(checkPos).pieceMoves(board, checkPos);
-                        check = kingKillCalculator(kingPos, moves);
-                    }
-                    if(check) {
-                        break;
-                    }
-                }
-            }
-            if(check) {
-                break;
-            }
+        GameStatus evaluated = evaluateStatus(teamTurn);
+        statusBoard = board;
+        statusModCount = board.modCount();
+        status = evaluated;
+        return evaluated;
+    }
+    private GameStatus evaluateStatus(TeamColor teamColor) {
+        moveBuffer.clear();
+        int enPassant = teamColor == teamTurn ? enPassantSquare : Bitboards.NO_SQUARE;
+        MoveGenerator.legalMoves(board, teamColor, -1L, castlingRights, enPassant, moveBuffer);
+        return new GameStatus(teamColor, isInCheck(teamColor), moveBuffer.size(), drawReason(teamColor));
+    }
+    private GameStatus.DrawReason drawReason(TeamColor teamColor) {
+        // Draws that end the game on their own come before those a player would have to claim.
+        if(board.hasInsufficientMaterial()) {
+            return GameStatus.DrawReason.INSUFFICIENT_MATERIAL;
         }
-        return check;
-    }
-    int kingColCalculator(int i, TeamColor teamColor) {
-        boolean foundKing = false;
-        int kingCol = 0;
-        for(int j = 1; j <= 8; ++j) {
-            ChessPosition kingPos = new ChessPosition(i, j);
-            if(board.getPiece(kingPos) != null) {
-                if(board.getPiece(kingPos).getPieceType() == ChessPiece.PieceType.KING) {
-                    if(board.getPiece(kingPos).getTeamColor() == teamColor) {
-                        kingCol = j;
-                        foundKing = true;
-                        break;
-                    }
-                }
-            }
+        if(teamColor != teamTurn) {
+            return null;
+        }
+        int repetitions = repetitionCount();
+        if(repetitions >= 5) {
+            return GameStatus.DrawReason.FIVEFOLD_REPETITION;
+        }
+        if(halfmoveClock >= 150) {
+            return GameStatus.DrawReason.SEVENTY_FIVE_MOVE_RULE;
+        }
+        if(repetitions >= 3) {
+            return GameStatus.DrawReason.THREEFOLD_REPETITION;
         }
-        if(foundKing) {
-            return kingCol;
+        if(halfmoveClock >= 100) {
+            return GameStatus.DrawReason.FIFTY_MOVE_RULE;
         }
-        return 0;
+        return null;
     }
-    boolean kingKillCalculator(ChessPosition kingPos, HashSet<ChessMove> moves) {
-        for(ChessMove move:moves) {
-            if(move.getEndPosition().equals(kingPos)) {
-                return true;
-            }
+    private GameStatus statusOf(TeamColor teamColor) {
+        if(teamColor == teamTurn) {
+            return evaluateStatus();
         }
-        return false;
+        return evaluateStatus(teamColor);
     }
 
     /**
@@ -206,47 +340,105 @@ public class ChessGame {
      * @return True if the specified team is in checkmate
      */
     public boolean isInCheckmate(TeamColor teamColor) {
-        if(isInCheck(teamColor)) {
-            if(isInStalemate(teamColor)) {
-                checkmateOccurred = true;
-                return true;
-            }
-        }
-        return false;
+        return statusOf(teamColor).isCheckmate();
     }
 
     /**
      * Determines if the given team is in stalemate, which here is defined as having
-     * no valid moves
+     * no valid moves while not in check
      *
      * @param teamColor which team to check for stalemate
      * @return True if the specified team is in stalemate, otherwise false
      */
     public boolean isInStalemate(TeamColor teamColor) {
-        if(checkmateOccurred) {
-            return false;
+        return statusOf(teamColor).isStalemate();
+    }
+
+    /**
+     * Creates a game from a FEN string. The halfmove clock and move number
+     * may be left off, in which case they start at 0 and 1. Castling rights
+     * whose king or rook is not on its starting square are dropped.
+     *
+     * @param fen the FEN text, such as {@code rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1}
+     * @return the game in that position
+     * @throws IllegalArgumentException if the text is not valid FEN
+     */
+    public static ChessGame fromFen(CharSequence fen) {
+        Fen reader = new Fen(fen);
+        ChessBoard board = new ChessBoard();
+        reader.readPlacement(board);
+        reader.readSpace();
+        TeamColor turn = reader.readTeam();
+        reader.readSpace();
+        int rights = reader.readCastling();
+        reader.readSpace();
+        int enPassant = reader.readEnPassant();
+        int halfmoves = 0;
+        int fullmoves = 1;
+        if(!reader.atEnd()) {
+            reader.readSpace();
+            halfmoves = reader.readNumber("halfmove clock");
+            reader.readSpace();
+            fullmoves = reader.readNumber("fullmove number");
         }
-        HashSet<ChessMove> goodMoves = new HashSet<>();
-        for(int i = 1; i <= 8; ++i) {
-            for(int j = 1; j <= 8; ++j) {
-                ChessPosition stalePos = new ChessPosition(i, j);
-                if(board.getPiece(stalePos) != null) {
-                    if(board.getPiece(stalePos).getTeamColor() == teamColor) {
-                        goodMoves.addAll(validMoves(stalePos));
-                    }
-                }
-            }
+        reader.expectEnd();
+
+        return restore(board, turn, rights, enPassant, halfmoves, fullmoves);
+    }
+
+    /**
+     * Builds a game from a board and the state FEN and the binary codec store
+     * alongside it. Castling rights without their king and rook, and en
+     * passant targets no pawn can use, are dropped.
+     */
+    static ChessGame restore(ChessBoard board, TeamColor turn, int castlingRights, int enPassantSquare,
+                             int halfmoveClock, int fullmoveNumber) {
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+        game.teamTurn = turn;
+        game.castlingRights &= castlingRights;
+        long capturers = board.getBitboard(turn, ChessPiece.PieceType.PAWN);
+        if(enPassantSquare != Bitboards.NO_SQUARE
+                && (Bitboards.pawnAttacks(turn.opponent(), enPassantSquare) & capturers) != 0) {
+            game.enPassantSquare = enPassantSquare;
         }
-        return goodMoves.isEmpty();
+        game.halfmoveClock = halfmoveClock;
+        game.fullmoveNumber = Math.max(1, fullmoveNumber);
+        return game;
+    }
+
+    /**
+     * Writes the position as a FEN string. The en passant square is only
+     * written when a pawn can actually capture there.
+     *
+     * @return the FEN text for this game
+     */
+    public String toFen() {
+        StringBuilder fen = new StringBuilder(90);
+        Fen.appendPlacement(board, fen);
+        fen.append(teamTurn == TeamColor.WHITE ? " w " : " b ");
+        Fen.appendCastling(castlingRights, fen);
+        fen.append(' ');
+        Fen.appendSquare(enPassantSquare, fen);
+        fen.append(' ').append(halfmoveClock).append(' ').append(fullmoveNumber);
+        return fen.toString();
     }
 
     /**
-     * Sets this game's chessboard with a given board
+     * Sets this game's chessboard with a given board. Castling rights are
+     * worked out from which kings and rooks are still on their starting squares.
      *
      * @param board the new board to use
      */
     public void setBoard(ChessBoard board) {
         this.board = board;
+        castlingRights = CastlingRights.fromBoard(board);
+        enPassantSquare = Bitboards.NO_SQUARE;
+        keyHistory = null;
+        historySize = 0;
+        halfmoveClock = 0;
+        fullmoveNumber = 1;
+        status = null;
     }
 
     /**
@@ -0,0 +1,244 @@
+package chess;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * The Gson instance the client and server share, with compact formats for
+ * the chess classes.
+ * <p>
+ * A {@link ChessBoard} is written as the piece placement field of a FEN
+ * string, a {@link ChessMove} as a coordinate string such as {@code e7e8q},
+ * and a {@link ChessGame} as {@code {"fen": ..., "history": [...]}}, where
+ * the history holds the position keys used for repetition. Reading also
+ * accepts the field-by-field objects Gson writes by default, so games stored
+ * or sent before this format still load.
+ */
+public final class ChessJson {
+    /**
+     * Built once and safe to use from any thread
+     */
+    public static final Gson GSON = new GsonBuilder()
+            .registerTypeAdapterFactory(new ChessAdapterFactory())
+            .create();
+
+    private ChessJson() {}
+
+    private static final class ChessAdapterFactory implements TypeAdapterFactory {
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+            Class<? super T> raw = type.getRawType();
+            if(raw == ChessGame.class) {
+                return (TypeAdapter<T>) new GameAdapter(gson.getDelegateAdapter(this, TypeToken.get(ChessGame.class)));
+            }
+            if(raw == ChessBoard.class) {
+                return (TypeAdapter<T>) new BoardAdapter(gson.getDelegateAdapter(this, TypeToken.get(ChessBoard.class)));
+            }
+            if(raw == ChessMove.class) {
+                return (TypeAdapter<T>) new MoveAdapter(gson.getDelegateAdapter(this, TypeToken.get(ChessMove.class)));
+            }
+            return null;
+        }
+    }
+
+    private static final class GameAdapter extends TypeAdapter<ChessGame> {
+        private final TypeAdapter<ChessGame> legacy;
+
+        GameAdapter(TypeAdapter<ChessGame> legacy) {
+            this.legacy = legacy;
+        }
+
+        @Override
+        public void write(JsonWriter out, ChessGame game) throws IOException {
+            if(game == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("fen").value(game.toFen());
+            long[] history = game.keyHistory();
+            if(history.length > 0) {
+                out.name("history").beginArray();
+                for(long key:history) {
+                    out.value(key);
+                }
+                out.endArray();
+            }
+            out.endObject();
+        }
+
+        @Override
+        public ChessGame read(JsonReader in) throws IOException {
+            if(in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            String fen = null;
+            long[] history = null;
+            JsonObject legacyFields = null;
+            in.beginObject();
+            while(in.hasNext()) {
+                String name = in.nextName();
+                if(name.equals("fen")) {
+                    fen = in.nextString();
+                } else if(name.equals("history")) {
+                    history = readKeys(in);
+                } else {
+                    // Any other field means the game was written in Gson's default format.
+                    if(legacyFields == null) {
+                        legacyFields = new JsonObject();
+                    }
+                    legacyFields.add(name, JsonParser.parseReader(in));
+                }
+            }
+            in.endObject();
+            if(fen == null) {
+                return legacy.fromJsonTree(legacyFields == null ? new JsonObject() : legacyFields);
+            }
+            try {
+                ChessGame game = ChessGame.fromFen(fen);
+                if(history != null) {
+                    game.restoreKeyHistory(history);
+                }
+                return game;
+            } catch(IllegalArgumentException e) {
+                throw new JsonParseException(e.getMessage(), e);
+            }
+        }
+
+        private static long[] readKeys(JsonReader in) throws IOException {
+            long[] keys = new long[16];
+            int size = 0;
+            in.beginArray();
+            while(in.hasNext()) {
+                if(size == keys.length) {
+                    keys = Arrays.copyOf(keys, size * 2);
+                }
+                keys[size++] = in.nextLong();
+            }
+            in.endArray();
+            return Arrays.copyOf(keys, size);
+        }
+    }
+
+    private static final class BoardAdapter extends TypeAdapter<ChessBoard> {
+        private final TypeAdapter<ChessBoard> legacy;
+
+        BoardAdapter(TypeAdapter<ChessBoard> legacy) {
+            this.legacy = legacy;
+        }
+
+        @Override
+        public void write(JsonWriter out, ChessBoard board) throws IOException {
+            if(board == null) {
+                out.nullValue();
+                return;
+            }
+            StringBuilder placement = new StringBuilder(72);
+            Fen.appendPlacement(board, placement);
+            out.value(placement.toString());
+        }
+
+        @Override
+        public ChessBoard read(JsonReader in) throws IOException {
+            JsonToken token = in.peek();
+            if(token == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            if(token != JsonToken.STRING) {
+                return legacy.read(in);
+            }
+            try {
+                return new ChessBoard(in.nextString());
+            } catch(IllegalArgumentException e) {
+                throw new JsonParseException(e.getMessage(), e);
+            }
+        }
+    }
+
+    private static final class MoveAdapter extends TypeAdapter<ChessMove> {
+        private static final String PROMOTIONS = "qbnr";
+        private static final ChessPiece.PieceType[] PROMOTION_TYPES = {
+                ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.BISHOP,
+                ChessPiece.PieceType.KNIGHT, ChessPiece.PieceType.ROOK
+        };
+
+        private final TypeAdapter<ChessMove> legacy;
+
+        MoveAdapter(TypeAdapter<ChessMove> legacy) {
+            this.legacy = legacy;
+        }
+
+        @Override
+        public void write(JsonWriter out, ChessMove move) throws IOException {
+            if(move == null) {
+                out.nullValue();
+                return;
+            }
+            StringBuilder text = new StringBuilder(5);
+            appendPosition(move.getStartPosition(), text);
+            appendPosition(move.getEndPosition(), text);
+            ChessPiece.PieceType promotion = move.getPromotionPiece();
+            if(promotion != null) {
+                for(int i = 0; i < PROMOTION_TYPES.length; ++i) {
+                    if(PROMOTION_TYPES[i] == promotion) {
+                        text.append(PROMOTIONS.charAt(i));
+                    }
+                }
+            }
+            out.value(text.toString());
+        }
+
+        private static void appendPosition(ChessPosition position, StringBuilder text) {
+            text.append((char) ('a' + position.getColumn() - 1)).append(position.getRow());
+        }
+
+        @Override
+        public ChessMove read(JsonReader in) throws IOException {
+            JsonToken token = in.peek();
+            if(token == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            if(token != JsonToken.STRING) {
+                return legacy.read(in);
+            }
+            String text = in.nextString();
+            if(text.length() != 4 && text.length() != 5) {
+                throw new JsonParseException("Invalid move \"" + text + "\"");
+            }
+            ChessPiece.PieceType promotion = null;
+            if(text.length() == 5) {
+                int index = PROMOTIONS.indexOf(text.charAt(4));
+                if(index < 0) {
+                    throw new JsonParseException("Invalid promotion in move \"" + text + "\"");
+                }
+                promotion = PROMOTION_TYPES[index];
+            }
+            return new ChessMove(position(text, 0), position(text, 2), promotion);
+        }
+
+        private static ChessPosition position(String text, int offset) {
+            int col = text.charAt(offset) - 'a' + 1;
+            int row = text.charAt(offset + 1) - '0';
+            if(!Bitboards.onBoard(row, col)) {
+                throw new JsonParseException("Invalid square in move \"" + text + "\"");
+            }
+            return ChessPosition.of(row, col);
+        }
+    }
+}
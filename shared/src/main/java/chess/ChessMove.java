@@ -62,6 +62,8 @@ public class ChessMove {
 
     @Override
     public int hashCode() {
-        return Objects.hash(start, end, promotion);
+        int result = Objects.hashCode(start);
+        result = 31 * result + Objects.hashCode(end);
+        return 31 * result + (promotion == null ? 0 : promotion.ordinal() + 1);
     }
 }
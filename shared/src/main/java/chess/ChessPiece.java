@@ -11,14 +11,34 @@ import java.util.Objects;
  * signature of the existing methods.
  */
 public class ChessPiece {
-    private ChessGame.TeamColor color;
-    private PieceType type;
+    private static final ChessPiece[] PIECES = new ChessPiece[12];
+
+    static {
+        for(ChessGame.TeamColor color:ChessGame.TeamColor.values()) {
+            for(PieceType type:PieceType.values()) {
+                PIECES[index(color, type)] = new ChessPiece(color, type);
+            }
+        }
+    }
+
+    private final ChessGame.TeamColor color;
+    private final PieceType type;
 
     public ChessPiece(ChessGame.TeamColor pieceColor, ChessPiece.PieceType type) {
         color = pieceColor;
         this.type = type;
     }
 
+    /**
+     * Gets the shared instance for a piece. Pieces never change, so boards can
+     * hold the same instance on every square instead of allocating new ones.
+     *
+     * @return the piece of the given team and type
+     */
+    public static ChessPiece of(ChessGame.TeamColor pieceColor, ChessPiece.PieceType type) {
+        return PIECES[index(pieceColor, type)];
+    }
+
     /**
      * The various different chess piece options
      */
@@ -45,6 +65,24 @@ public class ChessPiece {
         return type;
     }
 
+    /**
+     * @return this piece's slot in the board's per-piece bitboards, 0-11
+     */
+    int index() {
+        return index(color, type);
+    }
+
+    static int index(ChessGame.TeamColor color, PieceType type) {
+        return color.ordinal() * 6 + type.ordinal();
+    }
+
+    /**
+     * @return the shared instance with the given {@link #index()}
+     */
+    static ChessPiece of(int index) {
+        return PIECES[index];
+    }
+
     /**
      * Calculates all the positions a chess piece can move to
      * Does not take into account moves that are illegal due to leaving the king in
@@ -53,281 +91,9 @@ public class ChessPiece {
      * @return Collection of valid moves
      */
     public Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition myPosition) {
-        switch(type) {
-            case PAWN:
-                return pawnMoves(board, myPosition);
-            case ROOK:
-                return rookMoves(board, myPosition);
-            case KNIGHT:
-                return knightMoves(board, myPosition);
-            case BISHOP:
-                return bishopMoves(board, myPosition);
-            case QUEEN:
-                return queenMoves(board, myPosition);
-            case KING:
-                return kingMoves(board, myPosition);
-        }
-        return null;
-    }
-    private HashSet<ChessMove> pawnMoves(ChessBoard board, ChessPosition start) {
-        HashSet<ChessMove> moves = new HashSet<>();
-        if(color == ChessGame.TeamColor.WHITE) {
-            if(start.getRow() == 2) {
-                ChessPosition hurdle = new ChessPosition(3, start.getColumn());
-                if(board.getPiece(hurdle) == null) {
-                    ChessPosition doubleJump = new ChessPosition(4, start.getColumn());
-                    pawnMoveAdder(start, doubleJump, board, moves);
-                }
-            }
-            if(start.getRow() < 7) {
-                ChessPosition forward = new ChessPosition(start.getRow() + 1, start.getColumn());
-                pawnMoveAdder(start, forward, board, moves);
-            }
-            if(start.getRow() == 7) {
-                ChessPosition forward = new ChessPosition(start.getRow() + 1, start.getColumn());
-                if(board.getPiece(forward) == null) {
-                    pawnUpgrades(start, forward, moves);
-                }
-            }
-            whiteDiags(start, board, moves);
-        }
-        if(color == ChessGame.TeamColor.BLACK) {
-            if(start.getRow() == 7) {
-                ChessPosition hurdle = new ChessPosition(6, start.getColumn());
-                if(board.getPiece(hurdle) == null) {
-                    ChessPosition doubleJump = new ChessPosition(5, start.getColumn());
-                    pawnMoveAdder(start, doubleJump, board, moves);
-                }
-            }
-            if(start.getRow() > 2) {
-                ChessPosition forward = new ChessPosition(start.getRow() - 1, start.getColumn());
-                pawnMoveAdder(start, forward, board, moves);
-            }
-            if(start.getRow() == 2) {
-                ChessPosition forward = new ChessPosition(start.getRow() - 1, start.getColumn());
-                if(board.getPiece(forward) == null) {
-                    pawnUpgrades(start, forward, moves);
-                }
-            }
-            blackDiags(start, board, moves);
-        }
-        return moves;
-    }
-    private void whiteDiags(ChessPosition start, ChessBoard board, HashSet<ChessMove> moves) {
-        if(start.getColumn() > 1) {
-            ChessPosition leftDiag = new ChessPosition(start.getRow() + 1, start.getColumn() - 1);
-            pawnConfrontations(start, leftDiag, board, moves);
-        }
-        if(start.getColumn() < 8) {
-            ChessPosition rightDiag = new ChessPosition(start.getRow() + 1, start.getColumn() + 1);
-            pawnConfrontations(start, rightDiag, board, moves);
-        }
-    }
-    private void blackDiags(ChessPosition start, ChessBoard board, HashSet<ChessMove> moves) {
-        if(start.getColumn() > 1) {
-            ChessPosition leftDiag = new ChessPosition(start.getRow() - 1, start.getColumn() - 1);
-            pawnConfrontations(start, leftDiag, board, moves);
-        }
-        if(start.getColumn() < 8) {
-            ChessPosition rightDiag = new ChessPosition(start.getRow() - 1, start.getColumn() + 1);
-            pawnConfrontations(start, rightDiag, board, moves);
-        }
-    }
-    private void pawnConfrontations(ChessPosition start, ChessPosition end, ChessBoard board, HashSet<ChessMove> moves) {
-        if(board.getPiece(end) != null) {
-            if(board.getPiece(end).getTeamColor() != color) {
-                if(end.getRow() == 8 || end.getRow() == 1) {
-                    pawnUpgrades(start, end, moves);
-                    return;
-                }
-                ChessMove kill = new ChessMove(start, end);
-                moves.add(kill);
-            }
-        }
-    }
-    private void pawnMoveAdder(ChessPosition start, ChessPosition end, ChessBoard board, HashSet<ChessMove> moves) {
-        if(board.getPiece(end) == null) {
-            ChessMove newMove = new ChessMove(start, end);
-            moves.add(newMove);
-        }
-    }
-    private void pawnUpgrades(ChessPosition start, ChessPosition end, HashSet<ChessMove> moves) {
-        ChessMove upgrade1 = new ChessMove(start, end, PieceType.ROOK);
-        ChessMove upgrade2 = new ChessMove(start, end, PieceType.KNIGHT);
-        ChessMove upgrade3 = new ChessMove(start, end, PieceType.BISHOP);
-        ChessMove upgrade4 = new ChessMove(start, end, PieceType.QUEEN);
-        moves.add(upgrade1);
-        moves.add(upgrade2);
-        moves.add(upgrade3);
-        moves.add(upgrade4);
-    }
-    private HashSet<ChessMove> rookMoves(ChessBoard board, ChessPosition start) {
-        HashSet<ChessMove> moves = new HashSet<>();
-        for(int i = 1; i + start.getRow() <= 8; ++i) {
-            ChessPosition end = new ChessPosition(start.getRow() + i, start.getColumn());
-            boolean confrontation = moveAdder(start, end, board, moves);
-            if(confrontation) {
-                break;
-            }
-        }
-        for(int i = 1; start.getRow() - i >= 1; ++i) {
-            ChessPosition end = new ChessPosition(start.getRow() - i, start.getColumn());
-            boolean confrontation = moveAdder(start, end, board, moves);
-            if(confrontation) {
-                break;
-            }
-        }
-        for(int i = 1; i + start.getColumn() <= 8; ++i) {
-            ChessPosition end = new ChessPosition(start.getRow(), start.getColumn() + i);
-            boolean confrontation = moveAdder(start, end, board, moves);
-            if(confrontation) {
-                break;
-            }
-        }
-        for(int i = 1; start.getColumn() - i >= 1; ++i) {
-            ChessPosition end = new ChessPosition(start.getRow(), start.getColumn() - i);
-            boolean confrontation = moveAdder(start, end, board, moves);
-            if(confrontation) {
-                break;
-            }
-        }
-        return moves;
-    }
-    private HashSet<ChessMove> knightMoves(ChessBoard board, ChessPosition start) {
-        HashSet<ChessMove> moves = new HashSet<>();
-        if(start.getRow() + 2 <= 8) {
-            if(start.getColumn() - 1 >= 1) {
-                ChessPosition wheelSpoke = new ChessPosition(start.getRow() + 2, start.getColumn() - 1);
-                moveAdder(start, wheelSpoke, board, moves);
-            }
-            if(start.getColumn() + 1 <= 8) {
-                ChessPosition wheelSpoke = new ChessPosition(start.getRow() + 2, start.getColumn() + 1);
-                moveAdder(start, wheelSpoke, board, moves);
-            }
-        }
-        if(start.getRow() - 2 >= 1) {
-            if(start.getColumn() - 1 >= 1) {
-                ChessPosition wheelSpoke = new ChessPosition(start.getRow() - 2, start.getColumn() - 1);
-                moveAdder(start, wheelSpoke, board, moves);
-            }
-            if(start.getColumn() + 1 <= 8) {
-                ChessPosition wheelSpoke = new ChessPosition(start.getRow() - 2, start.getColumn() + 1);
-                moveAdder(start, wheelSpoke, board, moves);
-            }
-        }
-        if(start.getRow() + 1 <= 8) {
-            if(start.getColumn() - 2 >= 1) {
-                ChessPosition wheelSpoke = new ChessPosition(start.getRow() + 1, start.getColumn() - 2);
-                moveAdder(start, wheelSpoke, board, moves);
-            }
-            if(start.getColumn() + 2 <= 8) {
-                ChessPosition wheelSpoke = new ChessPosition(start.getRow() + 1, start.getColumn() + 2);
-                moveAdder(start, wheelSpoke, board, moves);
-            }
-        }
-        if(start.getRow() - 1 >= 1) {
-            if(start.getColumn() - 2 >= 1) {
-                ChessPosition wheelSpoke = new ChessPosition(start.getRow() - 1, start.getColumn() - 2);
-                moveAdder(start, wheelSpoke, board, moves);
-            }
-            if(start.getColumn() + 2 <= 8) {
-                ChessPosition wheelSpoke = new ChessPosition(start.getRow() - 1, start.getColumn() + 2);
-                moveAdder(start, wheelSpoke, board, moves);
-            }
-        }
-        return moves;
-    }
-    private HashSet<ChessMove> bishopMoves(ChessBoard board, ChessPosition start) {
-        HashSet<ChessMove> moves = new HashSet<>();
-        for(int i = 1; (start.getRow() + i <= 8) && (start.getColumn() + i <= 8); ++i) {
-            ChessPosition end = new ChessPosition(start.getRow() + i, start.getColumn() + i);
-            boolean confrontation = moveAdder(start, end, board, moves);
-            if(confrontation) {
-                break;
-            }
-        }
-        for(int i = 1; (start.getRow() + i <= 8) && (start.getColumn() - i >= 1); ++i) {
-            ChessPosition end = new ChessPosition(start.getRow() + i, start.getColumn() - i);
-            boolean confrontation = moveAdder(start, end, board, moves);
-            if(confrontation) {
-                break;
-            }
-        }
-        for(int i = 1; (start.getRow() - i >= 1) && (start.getColumn() + i <= 8); ++i) {
-            ChessPosition end = new ChessPosition(start.getRow() - i, start.getColumn() + i);
-            boolean confrontation = moveAdder(start, end, board, moves);
-            if(confrontation) {
-                break;
-            }
-        }
-        for(int i = 1; (start.getRow() - i >= 1) && (start.getColumn() - i >= 1); ++i) {
-            ChessPosition end = new ChessPosition(start.getRow() - i, start.getColumn() - i);
-            boolean confrontation = moveAdder(start, end, board, moves);
-            if(confrontation) {
-                break;
-            }
-        }
-        return moves;
-    }
-    private HashSet<ChessMove> queenMoves(ChessBoard board, ChessPosition start) {
-        HashSet<ChessMove> moves = new HashSet<>();
-        moves.addAll(rookMoves(board, start));
-        moves.addAll(bishopMoves(board, start));
-        return moves;
-    }
-    private HashSet<ChessMove> kingMoves(ChessBoard board, ChessPosition start) {
-        HashSet<ChessMove> moves = new HashSet<>();
-        if(start.getRow() + 1 <= 8) {
-            if(start.getColumn() - 1 >= 1) {
-                ChessPosition end = new ChessPosition(start.getRow() + 1, start.getColumn() - 1);
-                moveAdder(start, end, board, moves);
-            }
-            if(start.getColumn() + 1 <= 8) {
-                ChessPosition end = new ChessPosition(start.getRow() + 1, start.getColumn() + 1);
-                moveAdder(start, end, board, moves);
-            }
-            ChessPosition end = new ChessPosition(start.getRow() + 1, start.getColumn());
-            moveAdder(start, end, board, moves);
-        }
-        if(start.getRow() - 1 >= 1) {
-            if(start.getColumn() - 1 >= 1) {
-                ChessPosition end = new ChessPosition(start.getRow() - 1, start.getColumn() - 1);
-                moveAdder(start, end, board, moves);
-            }
-            if(start.getColumn() + 1 <= 8) {
-                ChessPosition end = new ChessPosition(start.getRow() - 1, start.getColumn() + 1);
-                moveAdder(start, end, board, moves);
-            }
-            ChessPosition end = new ChessPosition(start.getRow() - 1, start.getColumn());
-            moveAdder(start, end, board, moves);
-        }
-        if(start.getColumn() + 1 <= 8) {
-            ChessPosition end = new ChessPosition(start.getRow(), start.getColumn() + 1);
-            moveAdder(start, end, board, moves);
-        }
-        if(start.getColumn() - 1 >= 1) {
-            ChessPosition end = new ChessPosition(start.getRow(), start.getColumn() - 1);
-            moveAdder(start, end, board, moves);
-        }
-        return moves;
-    }
-    private boolean moveAdder(ChessPosition start, ChessPosition end, ChessBoard board, HashSet<ChessMove> moves) {
-        boolean confrontation = false;
-        if(board.getPiece(end) == null) {
-            ChessMove possibleMove = new ChessMove(start, end);
-            moves.add(possibleMove);
-        }
-        if(board.getPiece(end) != null) {
-            pieceConfrontations(start, end, board, moves);
-            confrontation = true;
-        }
-        return confrontation;
-    }
-    private void pieceConfrontations(ChessPosition start, ChessPosition end, ChessBoard board, HashSet<ChessMove> moves) {
-        if(board.getPiece(end).getTeamColor() != color) {
-            ChessMove kill = new ChessMove(start, end);
-            moves.add(kill);
-        }
+        MoveList moves = new MoveList();
+        MoveGenerator.pseudoLegalMoves(board, this, Bitboards.square(myPosition), moves);
+        return moves.toChessMoves(new HashSet<>());
     }
 
     @Override
@@ -0,0 +1,230 @@
+package chess;
+
+/**
+ * Reads and writes Forsyth-Edwards Notation, the one-line text form of a
+ * position such as {@code rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1}.
+ * <p>
+ * The reader walks the text one character at a time with a cursor, so
+ * parsing never splits the text or copies it into substrings.
+ */
+final class Fen {
+    static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    private final CharSequence text;
+    private int index;
+
+    Fen(CharSequence text) {
+        this.text = text;
+    }
+
+    /**
+     * Reads the piece placement field onto an empty board
+     */
+    void readPlacement(ChessBoard board) {
+        int row = 8;
+        int col = 1;
+        while(true) {
+            char c = next("piece placement");
+            if(c == '/') {
+                if(col != 9 || row == 1) {
+                    throw error("row " + row + " does not have 8 squares");
+                }
+                --row;
+                col = 1;
+            } else if(c >= '1' && c <= '8') {
+                col += c - '0';
+            } else {
+                ChessPiece piece = piece(c);
+                if(piece == null) {
+                    throw error("unexpected '" + c + "' in piece placement");
+                }
+                if(col > 8) {
+                    throw error("row " + row + " has more than 8 squares");
+                }
+                board.addPiece(ChessPosition.of(row, col), piece);
+                ++col;
+            }
+            if(col > 9) {
+                throw error("row " + row + " has more than 8 squares");
+            }
+            if(row == 1 && col == 9) {
+                return;
+            }
+        }
+    }
+
+    ChessGame.TeamColor readTeam() {
+        char c = next("side to move");
+        if(c == 'w') {
+            return ChessGame.TeamColor.WHITE;
+        }
+        if(c == 'b') {
+            return ChessGame.TeamColor.BLACK;
+        }
+        throw error("side to move must be 'w' or 'b'");
+    }
+
+    int readCastling() {
+        if(peek() == '-') {
+            ++index;
+            return CastlingRights.NONE;
+        }
+        int rights = CastlingRights.NONE;
+        while(index < text.length() && text.charAt(index) != ' ') {
+            int right = switch (text.charAt(index)) {
+                case 'K' -> CastlingRights.WHITE_KINGSIDE;
+                case 'Q' -> CastlingRights.WHITE_QUEENSIDE;
+                case 'k' -> CastlingRights.BLACK_KINGSIDE;
+                case 'q' -> CastlingRights.BLACK_QUEENSIDE;
+                default -> throw error("unexpected '" + text.charAt(index) + "' in castling rights");
+            };
+            rights |= right;
+            ++index;
+        }
+        if(rights == CastlingRights.NONE) {
+            throw error("missing castling rights");
+        }
+        return rights;
+    }
+
+    /**
+     * @return the en passant target square, or {@link Bitboards#NO_SQUARE}
+     */
+    int readEnPassant() {
+        char file = next("en passant square");
+        if(file == '-') {
+            return Bitboards.NO_SQUARE;
+        }
+        char rank = next("en passant square");
+        if(file < 'a' || file > 'h' || (rank != '3' && rank != '6')) {
+            throw error("en passant square must be on row 3 or 6");
+        }
+        return Bitboards.square(rank - '0', file - 'a' + 1);
+    }
+
+    int readNumber(String field) {
+        int start = index;
+        int value = 0;
+        while(index < text.length() && Character.isDigit(text.charAt(index))) {
+            value = value * 10 + (text.charAt(index++) - '0');
+            if(value > 100_000) {
+                throw error(field + " is too large");
+            }
+        }
+        if(index == start) {
+            throw error("missing " + field);
+        }
+        return value;
+    }
+
+    void readSpace() {
+        if(next("space") != ' ') {
+            throw error("fields must be separated by a single space");
+        }
+    }
+
+    boolean atEnd() {
+        return index == text.length();
+    }
+
+    void expectEnd() {
+        if(!atEnd()) {
+            throw error("unexpected text after the last field");
+        }
+    }
+
+    private char peek() {
+        if(atEnd()) {
+            throw error("text ends too early");
+        }
+        return text.charAt(index);
+    }
+
+    private char next(String field) {
+        if(atEnd()) {
+            throw error("missing " + field);
+        }
+        return text.charAt(index++);
+    }
+
+    private IllegalArgumentException error(String problem) {
+        return new IllegalArgumentException(String.format("Invalid FEN \"%s\": %s", text, problem));
+    }
+
+    private static ChessPiece piece(char c) {
+        ChessGame.TeamColor color = Character.isUpperCase(c) ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+        ChessPiece.PieceType type = switch (Character.toLowerCase(c)) {
+            case 'k' -> ChessPiece.PieceType.KING;
+            case 'q' -> ChessPiece.PieceType.QUEEN;
+            case 'b' -> ChessPiece.PieceType.BISHOP;
+            case 'n' -> ChessPiece.PieceType.KNIGHT;
+            case 'r' -> ChessPiece.PieceType.ROOK;
+            case 'p' -> ChessPiece.PieceType.PAWN;
+            default -> null;
+        };
+        return type == null ? null : ChessPiece.of(color, type);
+    }
+
+    private static char symbol(ChessPiece piece) {
+        char c = switch (piece.getPieceType()) {
+            case KING -> 'k';
+            case QUEEN -> 'q';
+            case BISHOP -> 'b';
+            case KNIGHT -> 'n';
+            case ROOK -> 'r';
+            case PAWN -> 'p';
+        };
+        return piece.getTeamColor() == ChessGame.TeamColor.WHITE ? Character.toUpperCase(c) : c;
+    }
+
+    static void appendPlacement(ChessBoard board, StringBuilder out) {
+        for(int row = 8; row >= 1; --row) {
+            int empty = 0;
+            for(int col = 1; col <= 8; ++col) {
+                ChessPiece piece = board.pieceAt(Bitboards.square(row, col));
+                if(piece == null) {
+                    ++empty;
+                    continue;
+                }
+                if(empty > 0) {
+                    out.append((char) ('0' + empty));
+                    empty = 0;
+                }
+                out.append(symbol(piece));
+            }
+            if(empty > 0) {
+                out.append((char) ('0' + empty));
+            }
+            if(row > 1) {
+                out.append('/');
+            }
+        }
+    }
+
+    static void appendCastling(int rights, StringBuilder out) {
+        if(rights == CastlingRights.NONE) {
+            out.append('-');
+            return;
+        }
+        if((rights & CastlingRights.WHITE_KINGSIDE) != 0) {
+            out.append('K');
+        }
+        if((rights & CastlingRights.WHITE_QUEENSIDE) != 0) {
+            out.append('Q');
+        }
+        if((rights & CastlingRights.BLACK_KINGSIDE) != 0) {
+            out.append('k');
+        }
+        if((rights & CastlingRights.BLACK_QUEENSIDE) != 0) {
+            out.append('q');
+        }
+    }
+
+    static void appendSquare(int square, StringBuilder out) {
+        if(square == Bitboards.NO_SQUARE) {
+            out.append('-');
+            return;
+        }
+        out.append((char) ('a' + Bitboards.column(square) - 1)).append(Bitboards.row(square));
+    }
+}
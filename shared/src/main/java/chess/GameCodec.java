@@ -0,0 +1,151 @@
+package chess;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Packs a game into a few dozen bytes for storage and for binary WebSocket
+ * frames.
+ * <p>
+ * Version 1 lays the game out as:
+ * <ul>
+ * <li>1 byte: format version</li>
+ * <li>8 bytes: mask of occupied squares</li>
+ * <li>one 4-bit piece index per occupied square, lowest square first and
+ * low nibble first, padded to a whole byte</li>
+ * <li>1 byte: bit 0 set when black is to move, bits 4-7 the castling rights</li>
+ * <li>1 byte: en passant target square, or -1</li>
+ * <li>2 bytes each: halfmove clock and fullmove number</li>
+ * <li>2 bytes: number of position keys, then 8 bytes per key</li>
+ * </ul>
+ * A new game takes 33 bytes.
+ * <p>
+ * Single moves are packed separately into 15 bits (see {@link #encodeMove}) so
+ * a game can also be stored as a position plus the moves played since.
+ */
+public final class GameCodec {
+    public static final byte VERSION = 1;
+
+    private GameCodec() {}
+
+    /**
+     * @return how many bytes encode will write for the game
+     */
+    public static int encodedSize(ChessGame game) {
+        int pieces = Long.bitCount(game.getBoard().getOccupancy());
+        return 1 + 8 + (pieces + 1) / 2 + 1 + 1 + 2 + 2 + 2 + 8 * game.keyHistory().length;
+    }
+
+    /**
+     * Packs a move as its start square, end square and promotion piece, in
+     * the same bit layout as {@link Move}. The result always fits in a short.
+     */
+    public static short encodeMove(ChessMove move) {
+        int from = Bitboards.square(move.getStartPosition());
+        int to = Bitboards.square(move.getEndPosition());
+        return (short) Move.encode(from, to, move.getPromotionPiece(), 0);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the value is not an encoded move
+     */
+    public static ChessMove decodeMove(int encoded) {
+        if((encoded & ~0x7FFF) != 0 || ((encoded >>> 12) & 0x7) > ChessPiece.PieceType.values().length) {
+            throw new IllegalArgumentException("Invalid encoded move " + encoded);
+        }
+        return Move.toChessMove(encoded);
+    }
+
+    public static byte[] encode(ChessGame game) {
+        ByteBuffer out = ByteBuffer.allocate(encodedSize(game));
+        encode(game, out);
+        return out.array();
+    }
+
+    /**
+     * Writes the game at the buffer's position, which must have
+     * {@link #encodedSize} bytes remaining
+     */
+    public static void encode(ChessGame game, ByteBuffer out) {
+        ChessBoard board = game.getBoard();
+        long occupied = board.getOccupancy();
+        out.put(VERSION);
+        out.putLong(occupied);
+        int pending = -1;
+        for(long squares = occupied; squares != 0; squares &= squares - 1) {
+            int index = board.pieceAt(Bitboards.first(squares)).index();
+            if(pending < 0) {
+                pending = index;
+            } else {
+                out.put((byte) (pending | (index << 4)));
+                pending = -1;
+            }
+        }
+        if(pending >= 0) {
+            out.put((byte) pending);
+        }
+        int turn = game.getTeamTurn() == ChessGame.TeamColor.BLACK ? 1 : 0;
+        out.put((byte) (turn | (game.getCastlingRights() << 4)));
+        ChessPosition enPassant = game.getEnPassantPosition();
+        out.put((byte) (enPassant == null ? Bitboards.NO_SQUARE : Bitboards.square(enPassant)));
+        out.putShort((short) Math.min(game.getHalfmoveClock(), 0xFFFF));
+        out.putShort((short) Math.min(game.getFullmoveNumber(), 0xFFFF));
+        long[] history = game.keyHistory();
+        int kept = Math.min(history.length, 0xFFFF);
+        out.putShort((short) kept);
+        for(int i = history.length - kept; i < history.length; ++i) {
+            out.putLong(history[i]);
+        }
+    }
+
+    public static ChessGame decode(byte[] bytes) {
+        return decode(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * Reads a game written by encode, leaving the buffer just past it
+     *
+     * @throws IllegalArgumentException if the bytes are not an encoded game
+     */
+    public static ChessGame decode(ByteBuffer in) {
+        try {
+            byte version = in.get();
+            if(version != VERSION) {
+                throw new IllegalArgumentException("Unsupported game encoding version " + version);
+            }
+            ChessBoard board = new ChessBoard();
+            long occupied = in.getLong();
+            int packed = 0;
+            boolean high = false;
+            for(long squares = occupied; squares != 0; squares &= squares - 1) {
+                if(!high) {
+                    packed = in.get();
+                }
+                int index = high ? (packed >>> 4) & 0xF : packed & 0xF;
+                high = !high;
+                if(index >= 12) {
+                    throw new IllegalArgumentException("Invalid piece in encoded game");
+                }
+                board.setSquare(Bitboards.first(squares), ChessPiece.of(index));
+            }
+            int flags = in.get();
+            ChessGame.TeamColor turn = (flags & 1) != 0 ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+            int castlingRights = (flags >>> 4) & CastlingRights.ALL;
+            int enPassant = in.get();
+            if(enPassant < Bitboards.NO_SQUARE || enPassant > 63) {
+                throw new IllegalArgumentException("Invalid en passant square in encoded game");
+            }
+            int halfmoveClock = Short.toUnsignedInt(in.getShort());
+            int fullmoveNumber = Short.toUnsignedInt(in.getShort());
+            long[] history = new long[Short.toUnsignedInt(in.getShort())];
+            for(int i = 0; i < history.length; ++i) {
+                history[i] = in.getLong();
+            }
+            ChessGame game = ChessGame.restore(board, turn, castlingRights, enPassant, halfmoveClock, fullmoveNumber);
+            game.restoreKeyHistory(history);
+            return game;
+        } catch(BufferUnderflowException e) {
+            throw new IllegalArgumentException("Encoded game is truncated", e);
+        }
+    }
+}
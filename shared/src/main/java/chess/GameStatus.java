@@ -0,0 +1,42 @@
+package chess;
+
+/**
+ * Where a game stands for the team whose turn it is
+ *
+ * @param teamToMove     the team whose turn it is
+ * @param inCheck        whether that team's king is under attack
+ * @param legalMoveCount how many legal moves that team has
+ * @param draw           why the game is drawn, or null if it is not
+ */
+public record GameStatus(ChessGame.TeamColor teamToMove, boolean inCheck, int legalMoveCount, DrawReason draw) {
+    /**
+     * Ways a game can be drawn other than stalemate
+     */
+    public enum DrawReason {
+        THREEFOLD_REPETITION,
+        FIVEFOLD_REPETITION,
+        FIFTY_MOVE_RULE,
+        SEVENTY_FIVE_MOVE_RULE,
+        INSUFFICIENT_MATERIAL
+    }
+
+    public boolean isCheckmate() {
+        return inCheck && legalMoveCount == 0;
+    }
+
+    public boolean isStalemate() {
+        return !inCheck && legalMoveCount == 0;
+    }
+
+    /**
+     * @return True if the game is drawn by some rule other than stalemate.
+     * Checkmate takes precedence, so a mating move is never a draw.
+     */
+    public boolean isDraw() {
+        return draw != null && !isCheckmate();
+    }
+
+    public boolean isGameOver() {
+        return legalMoveCount == 0 || draw != null;
+    }
+}
@@ -0,0 +1,11 @@
+package chess;
+
+/**
+ * What a game needs to take back a move played with {@link ChessGame#playMove}
+ *
+ * @param board           the record for restoring the board
+ * @param castlingRights  the castling rights before the move
+ * @param enPassantSquare the en passant target square before the move
+ */
+record GameUndo(MoveUndo board, int castlingRights, int enPassantSquare) {
+}
@@ -0,0 +1,99 @@
+package chess;
+
+/**
+ * Packs a move into a single int so move generation can fill primitive
+ * buffers instead of allocating {@link ChessMove} objects.
+ * <p>
+ * Bits 0-5 hold the start square and bits 6-11 the end square (numbered as
+ * in {@link ChessBoard#getBitboard}), bits 12-14 the promotion piece type
+ * plus one (0 for none), and the bits above that the move flags.
+ */
+public final class Move {
+    public static final int CAPTURE = 1 << 15;
+    public static final int DOUBLE_PUSH = 1 << 16;
+    public static final int EN_PASSANT = 1 << 17;
+    public static final int CASTLE = 1 << 18;
+
+    private static final ChessPiece.PieceType[] PIECE_TYPES = ChessPiece.PieceType.values();
+
+    private Move() {}
+
+    public static int encode(int from, int to, ChessPiece.PieceType promotion, int flags) {
+        int promotionBits = promotion == null ? 0 : promotion.ordinal() + 1;
+        return from | (to << 6) | (promotionBits << 12) | flags;
+    }
+
+    public static int from(int move) {
+        return move & 0x3F;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 0x3F;
+    }
+
+    /**
+     * @return the piece a pawn promotes to, or null if the move is not a promotion
+     */
+    public static ChessPiece.PieceType promotion(int move) {
+        int promotionBits = (move >>> 12) & 0x7;
+        return promotionBits == 0 ? null : PIECE_TYPES[promotionBits - 1];
+    }
+
+    public static boolean isCapture(int move) {
+        return (move & CAPTURE) != 0;
+    }
+
+    public static boolean isEnPassant(int move) {
+        return (move & EN_PASSANT) != 0;
+    }
+
+    public static boolean isCastle(int move) {
+        return (move & CASTLE) != 0;
+    }
+
+    public static ChessMove toChessMove(int move) {
+        return new ChessMove(Bitboards.position(from(move)), Bitboards.position(to(move)), promotion(move));
+    }
+
+    /**
+     * @return the move in coordinate notation, such as e2e4 or e7e8q
+     */
+    public static String toString(int move) {
+        StringBuilder text = new StringBuilder(5);
+        appendSquare(text, from(move));
+        appendSquare(text, to(move));
+        ChessPiece.PieceType promotion = promotion(move);
+        if(promotion != null) {
+            text.append(promotion == ChessPiece.PieceType.KNIGHT ? 'n' : Character.toLowerCase(promotion.name().charAt(0)));
+        }
+        return text.toString();
+    }
+
+    private static void appendSquare(StringBuilder text, int square) {
+        text.append((char) ('a' + Bitboards.column(square) - 1)).append(Bitboards.row(square));
+    }
+
+    /**
+     * Packs a move, reading the board it will be played on to fill in the flags
+     */
+    public static int fromChessMove(ChessBoard board, ChessMove move) {
+        int from = Bitboards.square(move.getStartPosition());
+        int to = Bitboards.square(move.getEndPosition());
+        int flags = 0;
+        if(board.pieceAt(to) != null) {
+            flags |= CAPTURE;
+        }
+        ChessPiece piece = board.pieceAt(from);
+        if(piece != null && piece.getPieceType() == ChessPiece.PieceType.PAWN) {
+            if(Math.abs(to - from) == 16) {
+                flags |= DOUBLE_PUSH;
+            } else if(Bitboards.column(from) != Bitboards.column(to) && board.pieceAt(to) == null) {
+                flags |= CAPTURE | EN_PASSANT;
+            }
+        }
+        if(piece != null && piece.getPieceType() == ChessPiece.PieceType.KING && Math.abs(to - from) == 2) {
+            flags |= CASTLE;
+        }
+        return encode(from, to, move.getPromotionPiece(), flags);
+    }
+}
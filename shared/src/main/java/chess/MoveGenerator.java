@@ -0,0 +1,222 @@
+package chess;
+
+/**
+ * Builds moves from a board's bitboards.
+ * <p>
+ * Legal generation finds the pieces giving check and the pieces pinned to
+ * the king once per call and only produces moves that keep the king safe, so
+ * no move has to be played out and tested afterwards. Moves are written to a
+ * {@link MoveList} as packed ints so generation does not allocate.
+ */
+final class MoveGenerator {
+    private MoveGenerator() {}
+
+    /**
+     * Adds the moves a piece could make from a square, ignoring whether they
+     * leave its own king in check
+     */
+    static void pseudoLegalMoves(ChessBoard board, ChessPiece piece, int square, MoveList moves) {
+        long targets = targets(board, piece, square, board.getOccupancy());
+        addMoves(board, square, piece, targets, moves);
+    }
+
+    /**
+     * Adds the legal moves for one team's pieces
+     *
+     * @param fromMask        only pieces standing on these squares are moved
+     * @param castlingRights  the castles the team may still make, as {@link CastlingRights} flags
+     * @param enPassantSquare the square a pawn can capture onto en passant, or
+     *                        {@link Bitboards#NO_SQUARE}
+     */
+    static void legalMoves(ChessBoard board, ChessGame.TeamColor color, long fromMask, int castlingRights,
+                           int enPassantSquare, MoveList moves) {
+        ChessGame.TeamColor enemy = color.opponent();
+        long own = board.getOccupancy(color);
+        long occupied = board.getOccupancy();
+        int king = board.kingSquare(color);
+        if(king == Bitboards.NO_SQUARE) {
+            // Without a king nothing can be left in check.
+            addPieceMoves(board, own & fromMask, -1L, 0L, king, occupied, moves);
+            addEnPassant(board, color, own & fromMask, king, enPassantSquare, moves);
+            return;
+        }
+
+        long checkers = board.attackersTo(king, enemy, occupied);
+        if((fromMask & Bitboards.bit(king)) != 0) {
+            long targets = Bitboards.kingAttacks(king) & ~own;
+            long withoutKing = occupied ^ Bitboards.bit(king);
+            long safe = 0L;
+            while(targets != 0) {
+                int target = Bitboards.first(targets);
+                targets &= targets - 1;
+                if(board.attackersTo(target, enemy, withoutKing) == 0) {
+                    safe |= Bitboards.bit(target);
+                }
+            }
+            addMoves(board, king, board.pieceAt(king), safe, moves);
+            if(checkers == 0) {
+                addCastles(board, color, king, castlingRights, occupied, moves);
+            }
+        }
+        if(Long.bitCount(checkers) > 1) {
+            return;
+        }
+
+        // With one checker every other piece has to capture it or step in front of it.
+        long checkMask = -1L;
+        if(checkers != 0) {
+            checkMask = checkers | Bitboards.between(king, Bitboards.first(checkers));
+        }
+        long pinned = pinnedPieces(board, color, king, occupied);
+        long pieces = own & ~Bitboards.bit(king) & fromMask;
+        addPieceMoves(board, pieces, checkMask, pinned, king, occupied, moves);
+        addEnPassant(board, color, pieces, king, enPassantSquare, moves);
+    }
+
+    private static void addPieceMoves(ChessBoard board, long pieces, long checkMask, long pinned, int king,
+                                      long occupied, MoveList moves) {
+        while(pieces != 0) {
+            int square = Bitboards.first(pieces);
+            pieces &= pieces - 1;
+            ChessPiece piece = board.pieceAt(square);
+            long targets = targets(board, piece, square, occupied) & checkMask;
+            if((pinned & Bitboards.bit(square)) != 0) {
+                targets &= Bitboards.line(king, square);
+            }
+            addMoves(board, square, piece, targets, moves);
+        }
+    }
+
+    /**
+     * Adds the castles the team's rights allow. The king must not be in check,
+     * which the caller has already ruled out, and every square between king
+     * and rook must be empty with the two the king crosses unattacked.
+     */
+    private static void addCastles(ChessBoard board, ChessGame.TeamColor color, int king, int castlingRights,
+                                   long occupied, MoveList moves) {
+        int homeRow = color == ChessGame.TeamColor.WHITE ? 1 : 8;
+        if(king != Bitboards.square(homeRow, 5)) {
+            return;
+        }
+        ChessPiece rook = ChessPiece.of(color, ChessPiece.PieceType.ROOK);
+        if((castlingRights & CastlingRights.kingside(color)) != 0
+                && rook.equals(board.pieceAt(king + 3))
+                && (occupied & (Bitboards.bit(king + 1) | Bitboards.bit(king + 2))) == 0
+                && !board.isAttacked(king + 1, color.opponent())
+                && !board.isAttacked(king + 2, color.opponent())) {
+            moves.add(Move.encode(king, king + 2, null, Move.CASTLE));
+        }
+        if((castlingRights & CastlingRights.queenside(color)) != 0
+                && rook.equals(board.pieceAt(king - 4))
+                && (occupied & (Bitboards.bit(king - 1) | Bitboards.bit(king - 2) | Bitboards.bit(king - 3))) == 0
+                && !board.isAttacked(king - 1, color.opponent())
+                && !board.isAttacked(king - 2, color.opponent())) {
+            moves.add(Move.encode(king, king - 2, null, Move.CASTLE));
+        }
+    }
+
+    /**
+     * Adds captures en passant for the given pawns. Taking a pawn off the
+     * board can uncover an attack along the row the two pawns shared, so each
+     * capture is checked against the position it leaves rather than the pin
+     * and check masks.
+     */
+    private static void addEnPassant(ChessBoard board, ChessGame.TeamColor color, long pieces, int king,
+                                     int enPassantSquare, MoveList moves) {
+        if(enPassantSquare == Bitboards.NO_SQUARE) {
+            return;
+        }
+        int captured = enPassantSquare + (color == ChessGame.TeamColor.WHITE ? -8 : 8);
+        ChessPiece enemyPawn = ChessPiece.of(color.opponent(), ChessPiece.PieceType.PAWN);
+        if(!enemyPawn.equals(board.pieceAt(captured))) {
+            return;
+        }
+        long capturers = Bitboards.pawnAttacks(color.opponent(), enPassantSquare)
+                & board.getBitboard(color, ChessPiece.PieceType.PAWN) & pieces;
+        while(capturers != 0) {
+            int from = Bitboards.first(capturers);
+            capturers &= capturers - 1;
+            if(king != Bitboards.NO_SQUARE) {
+                long occupied = (board.getOccupancy() ^ Bitboards.bit(from) ^ Bitboards.bit(captured))
+                        | Bitboards.bit(enPassantSquare);
+                if((board.attackersTo(king, color.opponent(), occupied) & ~Bitboards.bit(captured)) != 0) {
+                    continue;
+                }
+            }
+            moves.add(Move.encode(from, enPassantSquare, null, Move.CAPTURE | Move.EN_PASSANT));
+        }
+    }
+
+    /**
+     * Finds the team's pieces that are the only thing standing between their
+     * king and an enemy rook, bishop or queen
+     */
+    private static long pinnedPieces(ChessBoard board, ChessGame.TeamColor color, int king, long occupied) {
+        ChessGame.TeamColor enemy = color.opponent();
+        long queens = board.getBitboard(enemy, ChessPiece.PieceType.QUEEN);
+        long snipers = (Bitboards.rookAttacks(king, 0L)
+                & (board.getBitboard(enemy, ChessPiece.PieceType.ROOK) | queens))
+                | (Bitboards.bishopAttacks(king, 0L)
+                & (board.getBitboard(enemy, ChessPiece.PieceType.BISHOP) | queens));
+        long own = board.getOccupancy(color);
+        long pinned = 0L;
+        while(snipers != 0) {
+            int sniper = Bitboards.first(snipers);
+            snipers &= snipers - 1;
+            long blockers = Bitboards.between(king, sniper) & occupied;
+            if(Long.bitCount(blockers) == 1 && (blockers & own) != 0) {
+                pinned |= blockers;
+            }
+        }
+        return pinned;
+    }
+
+    private static long targets(ChessBoard board, ChessPiece piece, int square, long occupied) {
+        ChessGame.TeamColor color = piece.getTeamColor();
+        if(piece.getPieceType() == ChessPiece.PieceType.PAWN) {
+            return pawnTargets(color, square, occupied, board.getOccupancy(color.opponent()));
+        }
+        return Bitboards.attacks(piece.getPieceType(), square, occupied) & ~board.getOccupancy(color);
+    }
+
+    private static long pawnTargets(ChessGame.TeamColor color, int square, long occupied, long enemies) {
+        long targets = Bitboards.pawnAttacks(color, square) & enemies;
+        boolean white = color == ChessGame.TeamColor.WHITE;
+        int forward = white ? 8 : -8;
+        int push = square + forward;
+        if(push >= 0 && push < 64 && (occupied & Bitboards.bit(push)) == 0) {
+            targets |= Bitboards.bit(push);
+            int homeRow = white ? 2 : 7;
+            if(Bitboards.row(square) == homeRow && (occupied & Bitboards.bit(push + forward)) == 0) {
+                targets |= Bitboards.bit(push + forward);
+            }
+        }
+        return targets;
+    }
+
+    private static void addMoves(ChessBoard board, int from, ChessPiece piece, long targets, MoveList moves) {
+        long enemies = board.getOccupancy(piece.getTeamColor().opponent());
+        if(piece.getPieceType() == ChessPiece.PieceType.PAWN) {
+            long promotions = targets & (Bitboards.RANK_1 | Bitboards.RANK_8);
+            targets &= ~promotions;
+            while(promotions != 0) {
+                int to = Bitboards.first(promotions);
+                promotions &= promotions - 1;
+                int flags = (enemies & Bitboards.bit(to)) != 0 ? Move.CAPTURE : 0;
+                moves.add(Move.encode(from, to, ChessPiece.PieceType.QUEEN, flags));
+                moves.add(Move.encode(from, to, ChessPiece.PieceType.ROOK, flags));
+                moves.add(Move.encode(from, to, ChessPiece.PieceType.BISHOP, flags));
+                moves.add(Move.encode(from, to, ChessPiece.PieceType.KNIGHT, flags));
+            }
+        }
+        while(targets != 0) {
+            int to = Bitboards.first(targets);
+            targets &= targets - 1;
+            int flags = (enemies & Bitboards.bit(to)) != 0 ? Move.CAPTURE : 0;
+            if(piece.getPieceType() == ChessPiece.PieceType.PAWN && Math.abs(to - from) == 16) {
+                flags |= Move.DOUBLE_PUSH;
+            }
+            moves.add(Move.encode(from, to, null, flags));
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package chess;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * A reusable buffer of moves packed with {@link Move}
+ */
+public final class MoveList {
+    // No legal chess position has more than 218 moves, but test boards with
+    // extra pieces and no kings can have more pseudo-legal ones, so it grows.
+    private int[] moves = new int[256];
+    private int size;
+
+    public void add(int move) {
+        if(size == moves.length) {
+            moves = Arrays.copyOf(moves, moves.length * 2);
+        }
+        moves[size++] = move;
+    }
+
+    public int get(int index) {
+        return moves[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public boolean contains(int move) {
+        for(int i = 0; i < size; ++i) {
+            if(moves[i] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Unpacks every move into the given collection
+     */
+    public <T extends Collection<ChessMove>> T toChessMoves(T collection) {
+        for(int i = 0; i < size; ++i) {
+            collection.add(Move.toChessMove(moves[i]));
+        }
+        return collection;
+    }
+}
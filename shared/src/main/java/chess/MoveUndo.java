@@ -0,0 +1,14 @@
+package chess;
+
+/**
+ * What a board needs to take back a move played with {@link ChessBoard#makeMove}
+ *
+ * @param move             the move that was played
+ * @param movedPiece       the piece that left the start position, before any promotion
+ * @param capturedPiece    the piece that was captured, or null
+ * @param capturedPosition where the captured piece stood; the end position
+ *                         unless the move captured en passant
+ */
+public record MoveUndo(ChessMove move, ChessPiece movedPiece, ChessPiece capturedPiece,
+                       ChessPosition capturedPosition) {
+}
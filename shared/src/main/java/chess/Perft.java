@@ -0,0 +1,87 @@
+package chess;
+
+import java.io.IOException;
+
+/**
+ * Counts the positions reachable from a game in an exact number of moves.
+ * <p>
+ * Perft counts for well-known positions are published, so comparing against
+ * them checks the move generator, and timing the count measures how fast it
+ * runs. Run {@link #main} with a depth, and optionally a FEN string, to print
+ * the count for each first move and the nodes per second.
+ */
+public final class Perft {
+    private static final int MAX_DEPTH = 16;
+
+    private final ChessGame game;
+    private final MoveList[] buffers = new MoveList[MAX_DEPTH];
+
+    public Perft(ChessGame game) {
+        this.game = game;
+        for(int i = 0; i < MAX_DEPTH; ++i) {
+            buffers[i] = new MoveList();
+        }
+    }
+
+    /**
+     * @return the number of move sequences of the given length from the
+     * current position
+     */
+    public long perft(int depth) {
+        if(depth < 0 || depth > MAX_DEPTH) {
+            throw new IllegalArgumentException("depth must be between 0 and " + MAX_DEPTH);
+        }
+        if(depth == 0) {
+            return 1;
+        }
+        MoveList moves = buffers[depth - 1];
+        game.legalMoves(moves);
+        if(depth == 1) {
+            return moves.size();
+        }
+        long nodes = 0;
+        for(int i = 0; i < moves.size(); ++i) {
+            GameUndo undo = game.playMove(moves.get(i));
+            nodes += perft(depth - 1);
+            game.takeBack(undo);
+        }
+        return nodes;
+    }
+
+    /**
+     * Splits a perft count by first move, which narrows down where a wrong
+     * total goes astray
+     *
+     * @param out where each move's count and the total are written
+     * @return the total number of nodes
+     */
+    public long divide(int depth, Appendable out) throws IOException {
+        if(depth < 1 || depth > MAX_DEPTH) {
+            throw new IllegalArgumentException("depth must be between 1 and " + MAX_DEPTH);
+        }
+        MoveList moves = new MoveList();
+        game.legalMoves(moves);
+        long total = 0;
+        for(int i = 0; i < moves.size(); ++i) {
+            int move = moves.get(i);
+            GameUndo undo = game.playMove(move);
+            long nodes = perft(depth - 1);
+            game.takeBack(undo);
+            total += nodes;
+            out.append(Move.toString(move)).append(": ").append(Long.toString(nodes)).append('\n');
+        }
+        out.append("Nodes: ").append(Long.toString(total)).append('\n');
+        return total;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        ChessGame game = args.length > 1 ? ChessGame.fromFen(args[1]) : new ChessGame();
+        Perft perft = new Perft(game);
+        long start = System.nanoTime();
+        long nodes = perft.divide(depth, System.out);
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("Time: %.3f s%n", elapsed / 1e9);
+        System.out.printf("Nodes/second: %.0f%n", nodes / (elapsed / 1e9));
+    }
+}
@@ -0,0 +1,59 @@
+package chess;
+
+import java.util.SplittableRandom;
+
+/**
+ * Random 64-bit keys for building Zobrist hashes of positions.
+ * <p>
+ * A position's key is the XOR of the key for each piece on its square, plus
+ * the side-to-move key when black is to move, plus keys for the castling
+ * rights and the en passant column when a game has them. Placing or removing a piece
+ * XORs its key in or out, so keys are kept up to date one square at a time.
+ * The seed is fixed so the same position hashes the same in every process.
+ */
+final class Zobrist {
+    private static final long SEED = 0x2403_C0DE_CAFE_F00DL;
+
+    private static final long[][] PIECE_SQUARE = new long[12][64];
+    static final long BLACK_TO_MOVE;
+    private static final long[] CASTLING = new long[16];
+    private static final long[] EN_PASSANT_COLUMN = new long[8];
+
+    static {
+        SplittableRandom random = new SplittableRandom(SEED);
+        for(long[] squares:PIECE_SQUARE) {
+            for(int square = 0; square < 64; ++square) {
+                squares[square] = random.nextLong();
+            }
+        }
+        BLACK_TO_MOVE = random.nextLong();
+        // No rights hashes to zero so boards and games without castling keep their keys.
+        for(int rights = 1; rights < CASTLING.length; ++rights) {
+            CASTLING[rights] = random.nextLong();
+        }
+        for(int col = 0; col < EN_PASSANT_COLUMN.length; ++col) {
+            EN_PASSANT_COLUMN[col] = random.nextLong();
+        }
+    }
+
+    private Zobrist() {}
+
+    static long piece(ChessPiece piece, int square) {
+        return PIECE_SQUARE[piece.index()][square];
+    }
+
+    static long castling(int rights) {
+        return CASTLING[rights];
+    }
+
+    /**
+     * @return the key for an en passant target square, or 0 for none
+     */
+    static long enPassant(int square) {
+        return square == Bitboards.NO_SQUARE ? 0L : EN_PASSANT_COLUMN[Bitboards.column(square) - 1];
+    }
+
+    static long sideToMove(ChessGame.TeamColor color) {
+        return color == ChessGame.TeamColor.BLACK ? BLACK_TO_MOVE : 0L;
+    }
+}
@@ -0,0 +1,22 @@
+package records;
+
+/**
+ * One page of a game listing: games with IDs above {@code after}, at most
+ * {@code limit} of them, narrowed by whichever filters are not null.
+ *
+ * @param openSeatsOnly only games with a free seat
+ * @param namePrefix only games whose name starts with this
+ * @param player only games this user is playing in
+ */
+public record GameListQuery(int after, int limit, boolean openSeatsOnly, String namePrefix, String player) {
+    public static final int DEFAULT_LIMIT = 100;
+    public static final int MAX_LIMIT = 500;
+
+    public GameListQuery {
+        limit = Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+
+    public static GameListQuery firstPage() {
+        return new GameListQuery(0, DEFAULT_LIMIT, false, null, null);
+    }
+}
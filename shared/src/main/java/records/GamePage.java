@@ -0,0 +1,9 @@
+package records;
+
+import java.util.ArrayList;
+
+/**
+ * @param nextAfter the after value for the following page, or null if this is the last one
+ */
+public record GamePage(ArrayList<AbbreviatedGameData> games, Integer nextAfter) {
+}
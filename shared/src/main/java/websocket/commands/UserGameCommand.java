@@ -18,6 +18,8 @@ public class UserGameCommand {
 
     private final Integer gameID;
     private ChessMove move;
+    // Set on CONNECT by clients that want LOAD_GAME sent as binary GameCodec frames.
+    private boolean binaryGames;
 
     public UserGameCommand(CommandType commandType, String authToken, Integer gameID) {
         this.commandType = commandType;
@@ -52,6 +54,12 @@ public class UserGameCommand {
     public ChessMove getMove() {
         return move;
     }
+    public boolean getBinaryGames() {
+        return binaryGames;
+    }
+    public void setBinaryGames(boolean binaryGames) {
+        this.binaryGames = binaryGames;
+    }
 
     @Override
     public boolean equals(Object o) {
@@ -0,0 +1,77 @@
+package chess;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class ChessJsonTest {
+
+    private static ChessMove move(int startRow, int startCol, int endRow, int endCol) {
+        return new ChessMove(ChessPosition.of(startRow, startCol), ChessPosition.of(endRow, endCol), null);
+    }
+
+    @Test
+    @DisplayName("Game Round Trip")
+    public void gameRoundTrip() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(move(2, 5, 4, 5));
+        game.makeMove(move(8, 7, 6, 6));
+        game.makeMove(move(1, 7, 3, 6));
+        game.makeMove(move(6, 6, 8, 7));
+
+        String json = ChessJson.GSON.toJson(game);
+        ChessGame loaded = ChessJson.GSON.fromJson(json, ChessGame.class);
+        Assertions.assertEquals(game.toFen(), loaded.toFen());
+        Assertions.assertEquals(game.getBoard(), loaded.getBoard());
+        Assertions.assertEquals(game.positionKey(), loaded.positionKey());
+
+        // The history comes along, so repetitions keep counting after a reload.
+        loaded.makeMove(move(3, 6, 1, 7));
+        loaded.makeMove(move(8, 7, 6, 6));
+        Assertions.assertEquals(2, loaded.repetitionCount());
+    }
+
+    @Test
+    @DisplayName("Compact Game")
+    public void compactGame() {
+        ChessGame game = new ChessGame();
+        String compact = ChessJson.GSON.toJson(game);
+        Assertions.assertEquals("{\"fen\":\"" + Fen.START + "\"}", compact);
+        Assertions.assertTrue(compact.length() < new Gson().toJson(game).length() / 10);
+    }
+
+    @Test
+    @DisplayName("Legacy Game")
+    public void legacyGame() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(move(2, 5, 4, 5));
+        String legacy = new Gson().toJson(game);
+
+        ChessGame loaded = ChessJson.GSON.fromJson(legacy, ChessGame.class);
+        Assertions.assertEquals(game.getBoard(), loaded.getBoard());
+        Assertions.assertEquals(ChessGame.TeamColor.BLACK, loaded.getTeamTurn());
+        Assertions.assertEquals(game.legalMoves().size(), loaded.legalMoves().size());
+    }
+
+    @Test
+    @DisplayName("Board")
+    public void board() {
+        ChessBoard board = new ChessBoard();
+        board.resetBoard();
+        Assertions.assertEquals("\"rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR\"", ChessJson.GSON.toJson(board));
+        Assertions.assertEquals(board, ChessJson.GSON.fromJson(ChessJson.GSON.toJson(board), ChessBoard.class));
+        Assertions.assertEquals(board, ChessJson.GSON.fromJson(new Gson().toJson(board), ChessBoard.class));
+    }
+
+    @Test
+    @DisplayName("Move")
+    public void move() {
+        ChessMove promotion = new ChessMove(ChessPosition.of(7, 5), ChessPosition.of(8, 5), ChessPiece.PieceType.KNIGHT);
+        Assertions.assertEquals("\"e7e8n\"", ChessJson.GSON.toJson(promotion));
+        Assertions.assertEquals(promotion, ChessJson.GSON.fromJson("\"e7e8n\"", ChessMove.class));
+        Assertions.assertEquals(move(2, 5, 4, 5), ChessJson.GSON.fromJson("\"e2e4\"", ChessMove.class));
+        Assertions.assertEquals(promotion, ChessJson.GSON.fromJson(new Gson().toJson(promotion), ChessMove.class));
+        Assertions.assertThrows(RuntimeException.class, () -> ChessJson.GSON.fromJson("\"e2e9\"", ChessMove.class));
+    }
+}
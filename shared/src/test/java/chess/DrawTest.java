@@ -0,0 +1,112 @@
+package chess;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static passoff.chess.TestUtilities.loadBoard;
+
+public class DrawTest {
+
+    private static ChessMove move(int startRow, int startCol, int endRow, int endCol) {
+        return new ChessMove(ChessPosition.of(startRow, startCol), ChessPosition.of(endRow, endCol), null);
+    }
+
+    // Both knights out and back, returning to the starting position.
+    private static void shuffleKnights(ChessGame game) throws InvalidMoveException {
+        game.makeMove(move(1, 7, 3, 6));
+        game.makeMove(move(8, 7, 6, 6));
+        game.makeMove(move(3, 6, 1, 7));
+        game.makeMove(move(6, 6, 8, 7));
+    }
+
+    @Test
+    @DisplayName("Threefold Repetition")
+    public void threefoldRepetition() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        Assertions.assertEquals(1, game.repetitionCount());
+        shuffleKnights(game);
+        Assertions.assertEquals(2, game.repetitionCount());
+        Assertions.assertFalse(game.evaluateStatus().isDraw());
+        shuffleKnights(game);
+        Assertions.assertEquals(3, game.repetitionCount());
+        GameStatus status = game.evaluateStatus();
+        Assertions.assertTrue(status.isDraw());
+        Assertions.assertTrue(status.isGameOver());
+        Assertions.assertEquals(GameStatus.DrawReason.THREEFOLD_REPETITION, status.draw());
+    }
+
+    @Test
+    @DisplayName("Fivefold Repetition")
+    public void fivefoldRepetition() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        for(int i = 0; i < 4; ++i) {
+            shuffleKnights(game);
+        }
+        Assertions.assertEquals(GameStatus.DrawReason.FIVEFOLD_REPETITION, game.evaluateStatus().draw());
+    }
+
+    @Test
+    @DisplayName("Pawn Move Resets Repetitions")
+    public void pawnMoveResets() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        shuffleKnights(game);
+        game.makeMove(move(2, 5, 4, 5));
+        game.makeMove(move(7, 5, 5, 5));
+        shuffleKnights(game);
+        Assertions.assertEquals(2, game.repetitionCount());
+        Assertions.assertFalse(game.evaluateStatus().isDraw());
+    }
+
+    @Test
+    @DisplayName("Same Board Different Turn")
+    public void differentTurn() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(move(1, 7, 3, 6));
+        game.makeMove(move(8, 7, 6, 6));
+        game.makeMove(move(3, 6, 1, 7));
+        Assertions.assertEquals(1, game.repetitionCount());
+    }
+
+    @Test
+    @DisplayName("Fifty Move Rule")
+    public void fiftyMoveRule() throws InvalidMoveException {
+        Gson gson = new Gson();
+        JsonObject json = gson.toJsonTree(new ChessGame()).getAsJsonObject();
+        json.addProperty("halfmoveClock", 98);
+        ChessGame game = gson.fromJson(json, ChessGame.class);
+        game.makeMove(move(1, 7, 3, 6));
+        Assertions.assertNull(game.evaluateStatus().draw());
+        game.makeMove(move(8, 7, 6, 6));
+        Assertions.assertEquals(100, game.getHalfmoveClock());
+        Assertions.assertEquals(GameStatus.DrawReason.FIFTY_MOVE_RULE, game.evaluateStatus().draw());
+        game.makeMove(move(2, 5, 4, 5));
+        Assertions.assertEquals(0, game.getHalfmoveClock());
+        Assertions.assertNull(game.evaluateStatus().draw());
+    }
+
+    @Test
+    @DisplayName("Insufficient Material")
+    public void insufficientMaterial() {
+        ChessGame game = new ChessGame();
+        game.setBoard(loadBoard("""
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | | | |b| | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | |B| |K| | | |
+                """));
+        Assertions.assertTrue(game.getBoard().hasInsufficientMaterial());
+        Assertions.assertEquals(GameStatus.DrawReason.INSUFFICIENT_MATERIAL, game.evaluateStatus().draw());
+
+        game.getBoard().addPiece(ChessPosition.of(1, 4), new ChessPiece(ChessGame.TeamColor.WHITE,
+                ChessPiece.PieceType.BISHOP));
+        Assertions.assertFalse(game.getBoard().hasInsufficientMaterial());
+        Assertions.assertNull(game.evaluateStatus().draw());
+    }
+}
@@ -0,0 +1,96 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class FenTest {
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+    private static ChessMove move(int startRow, int startCol, int endRow, int endCol) {
+        return new ChessMove(ChessPosition.of(startRow, startCol), ChessPosition.of(endRow, endCol), null);
+    }
+
+    @Test
+    @DisplayName("Starting Position")
+    public void startingPosition() {
+        Assertions.assertEquals(Fen.START, new ChessGame().toFen());
+        ChessGame game = ChessGame.fromFen(Fen.START);
+        Assertions.assertEquals(new ChessGame().getBoard(), game.getBoard());
+        Assertions.assertEquals(new ChessGame().positionKey(), game.positionKey());
+    }
+
+    @Test
+    @DisplayName("Board Constructor")
+    public void boardConstructor() {
+        ChessBoard expected = new ChessBoard();
+        expected.resetBoard();
+        Assertions.assertEquals(expected, new ChessBoard("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR"));
+        Assertions.assertEquals(expected, new ChessBoard(Fen.START));
+    }
+
+    @Test
+    @DisplayName("Round Trip")
+    public void roundTrip() {
+        Assertions.assertEquals(KIWIPETE, ChessGame.fromFen(KIWIPETE).toFen());
+        String endgame = "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 b - - 12 40";
+        Assertions.assertEquals(endgame, ChessGame.fromFen(endgame).toFen());
+        Assertions.assertEquals(ChessGame.TeamColor.BLACK, ChessGame.fromFen(endgame).getTeamTurn());
+        Assertions.assertEquals(12, ChessGame.fromFen(endgame).getHalfmoveClock());
+    }
+
+    @Test
+    @DisplayName("Moves Update Every Field")
+    public void movesUpdateFields() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(move(2, 5, 4, 5));
+        Assertions.assertEquals("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1", game.toFen());
+        game.makeMove(move(7, 1, 6, 1));
+        game.makeMove(move(4, 5, 5, 5));
+        game.makeMove(move(7, 4, 5, 4));
+        Assertions.assertEquals("rnbqkbnr/1pp1pppp/p7/3pP3/8/8/PPPP1PPP/RNBQKBNR w KQkq d6 0 3", game.toFen());
+        game.makeMove(move(1, 5, 2, 5));
+        Assertions.assertEquals("rnbqkbnr/1pp1pppp/p7/3pP3/8/8/PPPPKPPP/RNBQ1BNR b kq - 1 3", game.toFen());
+    }
+
+    @Test
+    @DisplayName("En Passant From FEN")
+    public void enPassant() {
+        ChessGame game = ChessGame.fromFen("rnbqkbnr/1pp1pppp/p7/3pP3/8/8/PPPP1PPP/RNBQKBNR w KQkq d6 0 3");
+        Assertions.assertEquals(ChessPosition.of(6, 4), game.getEnPassantPosition());
+        Assertions.assertTrue(game.validMoves(ChessPosition.of(5, 5)).contains(move(5, 5, 6, 4)));
+
+        // No white pawn can reach e6, so the target is dropped.
+        ChessGame unusable = ChessGame.fromFen("rnbqkbnr/pppp1ppp/8/4p3/8/8/PPPPPPPP/RNBQKBNR w KQkq e6 0 2");
+        Assertions.assertNull(unusable.getEnPassantPosition());
+    }
+
+    @Test
+    @DisplayName("Optional Move Counters")
+    public void optionalCounters() {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/8/8/8/8/4K2R w K -");
+        Assertions.assertEquals(0, game.getHalfmoveClock());
+        Assertions.assertEquals(1, game.getFullmoveNumber());
+        Assertions.assertEquals(CastlingRights.WHITE_KINGSIDE, game.getCastlingRights());
+    }
+
+    @Test
+    @DisplayName("Invalid FEN")
+    public void invalidFen() {
+        String[] invalid = {
+                "",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP",
+                "rnbqkbnr/ppppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+                "rnbqkbnr/pppppppp/9/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNX w KQkq - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR x KQkq - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQxq - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq e4 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1 extra"
+        };
+        for(String fen:invalid) {
+            Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen(fen), fen);
+        }
+    }
+}
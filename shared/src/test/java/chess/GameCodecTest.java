@@ -0,0 +1,82 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+public class GameCodecTest {
+
+    private static ChessMove move(int startRow, int startCol, int endRow, int endCol) {
+        return new ChessMove(ChessPosition.of(startRow, startCol), ChessPosition.of(endRow, endCol), null);
+    }
+
+    private static void assertSameGame(ChessGame expected, ChessGame actual) {
+        Assertions.assertEquals(expected.toFen(), actual.toFen());
+        Assertions.assertEquals(expected.getBoard(), actual.getBoard());
+        Assertions.assertEquals(expected.positionKey(), actual.positionKey());
+        Assertions.assertEquals(expected.repetitionCount(), actual.repetitionCount());
+    }
+
+    @Test
+    @DisplayName("New Game")
+    public void newGame() {
+        ChessGame game = new ChessGame();
+        byte[] bytes = GameCodec.encode(game);
+        Assertions.assertEquals(33, bytes.length);
+        Assertions.assertEquals(GameCodec.VERSION, bytes[0]);
+        assertSameGame(game, GameCodec.decode(bytes));
+    }
+
+    @Test
+    @DisplayName("Game State Round Trip")
+    public void gameState() throws InvalidMoveException {
+        ChessGame game = ChessGame.fromFen("r3k2r/p1pp1pb1/bn2pnp1/2qPN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w Kq - 7 31");
+        game.makeMove(move(2, 1, 4, 1));
+        game.makeMove(move(8, 1, 8, 2));
+        game.makeMove(move(1, 5, 1, 4));
+        byte[] bytes = GameCodec.encode(game);
+        Assertions.assertEquals(GameCodec.encodedSize(game), bytes.length);
+        assertSameGame(game, GameCodec.decode(bytes));
+
+        ChessGame enPassant = ChessGame.fromFen("rnbqkbnr/1pp1pppp/p7/3pP3/8/8/PPPP1PPP/RNBQKBNR w KQkq d6 0 3");
+        assertSameGame(enPassant, GameCodec.decode(GameCodec.encode(enPassant)));
+    }
+
+    @Test
+    @DisplayName("Shared Buffer")
+    public void sharedBuffer() throws InvalidMoveException {
+        ChessGame first = new ChessGame();
+        ChessGame second = new ChessGame();
+        second.makeMove(move(1, 7, 3, 6));
+        ByteBuffer buffer = ByteBuffer.allocate(GameCodec.encodedSize(first) + GameCodec.encodedSize(second));
+        GameCodec.encode(first, buffer);
+        GameCodec.encode(second, buffer);
+        buffer.flip();
+        assertSameGame(first, GameCodec.decode(buffer));
+        assertSameGame(second, GameCodec.decode(buffer));
+        Assertions.assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    @DisplayName("Move Round Trip")
+    public void moves() {
+        ChessMove quiet = move(1, 7, 3, 6);
+        ChessMove promotion = new ChessMove(ChessPosition.of(7, 8), ChessPosition.of(8, 8), ChessPiece.PieceType.KNIGHT);
+        Assertions.assertEquals(quiet, GameCodec.decodeMove(GameCodec.encodeMove(quiet)));
+        Assertions.assertEquals(promotion, GameCodec.decodeMove(GameCodec.encodeMove(promotion)));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> GameCodec.decodeMove(-1));
+    }
+
+    @Test
+    @DisplayName("Invalid Data")
+    public void invalidData() {
+        byte[] bytes = GameCodec.encode(new ChessGame());
+        byte[] truncated = Arrays.copyOf(bytes, bytes.length - 1);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(truncated));
+        bytes[0] = 99;
+        Assertions.assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(bytes));
+    }
+}
@@ -0,0 +1,139 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static passoff.chess.TestUtilities.loadBoard;
+
+public class PerftTest {
+
+    private static void assertPerft(ChessGame game, long... expected) {
+        Perft perft = new Perft(game);
+        for(int depth = 1; depth <= expected.length; ++depth) {
+            Assertions.assertEquals(expected[depth - 1], perft.perft(depth), "Wrong node count at depth " + depth);
+        }
+    }
+
+    @Test
+    @DisplayName("Starting Position")
+    public void startingPosition() {
+        assertPerft(new ChessGame(), 20, 400, 8902, 197281, 4865609);
+    }
+
+    @Test
+    @DisplayName("Rook and Pawn Endgame")
+    public void rookEndgame() {
+        ChessGame game = new ChessGame();
+        game.setBoard(loadBoard("""
+                | | | | | | | | |
+                | | |p| | | | | |
+                | | | |p| | | | |
+                |K|P| | | | | |r|
+                | |R| | | |p| |k|
+                | | | | | | | | |
+                | | | | |P| |P| |
+                | | | | | | | | |
+                """));
+        assertPerft(game, 14, 191, 2812, 43238);
+    }
+
+    @Test
+    @DisplayName("Castling, En Passant and Pins")
+    public void kiwipete() {
+        ChessGame game = new ChessGame();
+        game.setBoard(loadBoard("""
+                |r| | | |k| | |r|
+                |p| |p|p|q|p|b| |
+                |b|n| | |p|n|p| |
+                | | | |P|N| | | |
+                | |p| | |P| | | |
+                | | |N| | |Q| |p|
+                |P|P|P|B|B|P|P|P|
+                |R| | | |K| | |R|
+                """));
+        assertPerft(game, 48, 2039, 97862);
+    }
+
+    @Test
+    @DisplayName("Castling Rights Lost")
+    public void castlingRightsLost() {
+        ChessGame game = new ChessGame();
+        game.setBoard(loadBoard("""
+                |r| | | |k| | |r|
+                |P|p|p|p| |p|p|p|
+                | |b| | | |n|b|N|
+                |n|P| | | | | | |
+                |B|B|P| |P| | | |
+                |q| | | | |N| | |
+                |P|p| |P| | |P|P|
+                |R| | |Q| |R|K| |
+                """));
+        assertPerft(game, 6, 264, 9467);
+    }
+
+    @Test
+    @DisplayName("Discovered Checks and Promotions")
+    public void discoveredChecks() {
+        ChessGame game = new ChessGame();
+        game.setBoard(loadBoard("""
+                |r|n|b|q| |k| |r|
+                |p|p| |P|b|p|p|p|
+                | | |p| | | | | |
+                | | | | | | | | |
+                | | |B| | | | | |
+                | | | | | | | | |
+                |P|P|P| |N|n|P|P|
+                |R|N|B|Q|K| | |R|
+                """));
+        assertPerft(game, 44, 1486, 62379);
+    }
+
+    @Test
+    @DisplayName("Promotions")
+    public void promotions() {
+        ChessGame game = new ChessGame();
+        game.setBoard(loadBoard("""
+                |n| |n| | | | | |
+                |P|P|P|k| | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | |K|p|p|p|
+                | | | | | |N| |N|
+                """));
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+        assertPerft(game, 24, 496, 9483, 182838);
+    }
+
+    @Test
+    @DisplayName("Board Restored After Search")
+    public void boardRestored() {
+        ChessGame game = new ChessGame();
+        ChessBoard before = new ChessBoard();
+        before.resetBoard();
+        new Perft(game).perft(3);
+        Assertions.assertEquals(before, game.getBoard(), "Perft left the board changed");
+        Assertions.assertEquals(ChessGame.TeamColor.WHITE, game.getTeamTurn(), "Perft left the wrong team to move");
+        Assertions.assertEquals(CastlingRights.ALL, game.getCastlingRights(), "Perft left castling rights changed");
+    }
+
+    @Test
+    @DisplayName("Crowded Board Without Kings")
+    public void crowdedBoard() {
+        // More pseudo-legal moves than any real position has, which the move buffer has to grow for.
+        ChessGame game = new ChessGame();
+        game.setBoard(loadBoard("""
+                |r|Q|Q|Q|Q|r|Q| |
+                |Q| | | | | | |Q|
+                |Q| | | | |Q| |r|
+                |Q| | | | | |Q|Q|
+                |Q| | | |Q| | | |
+                |Q| | | | | |Q|Q|
+                |Q| | | | |Q| |r|
+                |Q|Q|Q|Q|r|Q| |Q|
+                """));
+        Assertions.assertEquals(259, game.legalMoves().size());
+    }
+}
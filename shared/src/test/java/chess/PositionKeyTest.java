@@ -0,0 +1,86 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class PositionKeyTest {
+
+    private static ChessMove move(int startRow, int startCol, int endRow, int endCol) {
+        return new ChessMove(ChessPosition.of(startRow, startCol), ChessPosition.of(endRow, endCol), null);
+    }
+
+    @Test
+    @DisplayName("Equal Boards Share a Key")
+    public void equalBoards() {
+        ChessBoard first = new ChessBoard();
+        first.resetBoard();
+        ChessBoard second = new ChessBoard();
+        second.resetBoard();
+        Assertions.assertEquals(first.positionKey(), second.positionKey());
+        Assertions.assertEquals(first.hashCode(), second.hashCode());
+    }
+
+    @Test
+    @DisplayName("Incremental Key Matches Fresh Key")
+    public void incrementalKey() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.getBoard().positionKey();
+        game.makeMove(move(2, 5, 4, 5));
+        game.makeMove(move(7, 4, 5, 4));
+        game.makeMove(move(4, 5, 5, 4));
+
+        ChessBoard copy = new ChessBoard();
+        for(int row = 1; row <= 8; ++row) {
+            for(int col = 1; col <= 8; ++col) {
+                ChessPiece piece = game.getBoard().getPiece(ChessPosition.of(row, col));
+                if(piece != null) {
+                    copy.addPiece(ChessPosition.of(row, col), piece);
+                }
+            }
+        }
+        Assertions.assertEquals(copy.positionKey(), game.getBoard().positionKey());
+    }
+
+    @Test
+    @DisplayName("Transpositions Share a Key")
+    public void transposition() throws InvalidMoveException {
+        ChessGame first = new ChessGame();
+        first.makeMove(move(1, 7, 3, 6));
+        first.makeMove(move(8, 7, 6, 6));
+        first.makeMove(move(1, 2, 3, 3));
+        ChessGame second = new ChessGame();
+        second.makeMove(move(1, 2, 3, 3));
+        second.makeMove(move(8, 7, 6, 6));
+        second.makeMove(move(1, 7, 3, 6));
+        Assertions.assertEquals(first.positionKey(), second.positionKey());
+    }
+
+    @Test
+    @DisplayName("Side to Move Changes the Key")
+    public void sideToMove() {
+        ChessGame game = new ChessGame();
+        long whiteKey = game.positionKey();
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+        Assertions.assertNotEquals(whiteKey, game.positionKey());
+        game.setTeamTurn(ChessGame.TeamColor.WHITE);
+        Assertions.assertEquals(whiteKey, game.positionKey());
+    }
+
+    @Test
+    @DisplayName("Castling Rights Change the Key")
+    public void castlingRights() throws InvalidMoveException {
+        ChessGame first = new ChessGame();
+        first.makeMove(move(1, 7, 3, 6));
+        first.makeMove(move(8, 7, 6, 6));
+        first.makeMove(move(1, 8, 1, 7));
+        first.makeMove(move(8, 8, 8, 7));
+        first.makeMove(move(1, 7, 1, 8));
+        first.makeMove(move(8, 7, 8, 8));
+        ChessGame second = new ChessGame();
+        second.makeMove(move(1, 7, 3, 6));
+        second.makeMove(move(8, 7, 6, 6));
+        Assertions.assertEquals(first.getBoard(), second.getBoard());
+        Assertions.assertNotEquals(first.positionKey(), second.positionKey());
+    }
+}